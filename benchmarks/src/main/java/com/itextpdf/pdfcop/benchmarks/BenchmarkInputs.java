@@ -0,0 +1,116 @@
+/*
+    Copyright (c) 2023 iText Group NV
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+ */
+package com.itextpdf.pdfcop.benchmarks;
+
+import com.itextpdf.antlr.PdfStreamLexer;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.pdfcop.ByteCharStream;
+import com.itextpdf.pdfcop.MultiStreamCharStream;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.Token;
+
+/**
+ * Loads what the benchmarks work on. The test PDFs are looked up in the directory given by the
+ * {@code pdfcop.pdfs} system property, by default the test resources of the main module.
+ */
+final class BenchmarkInputs {
+
+    static final String PDF_DIRECTORY_PROPERTY = "pdfcop.pdfs";
+    static final String DEFAULT_PDF_DIRECTORY = "../src/test/resources/pdfs";
+
+    private BenchmarkInputs() {
+    }
+
+    static File pdf(final String name) {
+        File pdf = new File(System.getProperty(PDF_DIRECTORY_PROPERTY, DEFAULT_PDF_DIRECTORY), name);
+        if (! pdf.isFile()) {
+            throw new IllegalStateException("No test PDF at " + pdf.getAbsolutePath() + ", set -D"
+                    + PDF_DIRECTORY_PROPERTY + " to the directory of the test PDFs");
+        }
+        return pdf;
+    }
+
+    /**
+     * Returns the decoded content streams of every page of a PDF.
+     */
+    static List<List<byte[]>> pages(final File pdf) throws IOException {
+        List<List<byte[]>> pages = new ArrayList<>();
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfReader(pdf))) {
+            for (int pageNumber = 1; pageNumber <= pdfDocument.getNumberOfPages(); pageNumber++) {
+                PdfPage page = pdfDocument.getPage(pageNumber);
+                List<byte[]> contentStreams = new ArrayList<>();
+                for (int streamIndex = 0; streamIndex < page.getContentStreamCount(); streamIndex++) {
+                    contentStreams.add(page.getContentStream(streamIndex).getBytes(true));
+                }
+                pages.add(contentStreams);
+            }
+        }
+        return pages;
+    }
+
+    static long length(final List<List<byte[]>> pages) {
+        long length = 0;
+        for (List<byte[]> page : pages) {
+            for (byte[] contentStream : page) {
+                length += contentStream.length;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Counts the tokens of the pages, as {@link LexerBenchmark} does, for the rate counters of the benchmarks that
+     * don't lex the content themselves.
+     */
+    static long tokenCount(final List<List<byte[]>> pages) {
+        PdfStreamLexer streamLexer = new PdfStreamLexer(null);
+        streamLexer.removeErrorListeners();
+        long tokens = 0;
+        for (List<byte[]> page : pages) {
+            streamLexer.setInputStream(charStream(page));
+            while (streamLexer.nextToken().getType() != Token.EOF) {
+                tokens++;
+            }
+        }
+        return tokens;
+    }
+
+    static CharStream charStream(final List<byte[]> page) {
+        return page.size() == 1 ? ByteCharStream.fromBytes(page.get(0)) : MultiStreamCharStream.fromStreams(page);
+    }
+}
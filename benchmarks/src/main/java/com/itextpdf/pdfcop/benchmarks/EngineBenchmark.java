@@ -0,0 +1,111 @@
+/*
+    Copyright (c) 2023 iText Group NV
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+ */
+package com.itextpdf.pdfcop.benchmarks;
+
+import com.itextpdf.pdfcop.PdfCopValidator;
+import com.itextpdf.pdfcop.PredictionStrategy;
+import com.itextpdf.pdfcop.ValidationEngine;
+import com.itextpdf.pdfcop.ValidationProperties;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Validation of every page of every test PDF by each engine, to compare them on the same content. {@code LL} is
+ * the ANTLR engine as configured by default, the reference the others are measured against.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EngineBenchmark {
+
+    private static final String[] PDFS = { "input.pdf", "outlook.pdf", "flowcad.pdf", "opensource.pdf",
+            "spunbysorcery.pdf", "inlineimage.pdf", "cmp_fieldsJustificationTest02.pdf" };
+
+    @Param({ "LL", "SLL_THEN_LL", "BYTE_LEVEL" })
+    public String engine;
+
+    private List<List<byte[]>> pages;
+    private long length;
+    private long tokenCount;
+    private PdfCopValidator validator;
+
+    @Setup
+    public void setUp() throws IOException {
+        this.pages = new ArrayList<>();
+        for (String pdf : PDFS) {
+            this.pages.addAll(BenchmarkInputs.pages(BenchmarkInputs.pdf(pdf)));
+        }
+        this.length = BenchmarkInputs.length(this.pages);
+        this.tokenCount = BenchmarkInputs.tokenCount(this.pages);
+
+        ValidationProperties properties = new ValidationProperties();
+        if ("BYTE_LEVEL".equals(this.engine)) {
+            properties.setValidationEngine(ValidationEngine.BYTE_LEVEL);
+        } else {
+            properties.setPredictionStrategy(PredictionStrategy.valueOf(this.engine));
+        }
+        this.validator = new PdfCopValidator(properties);
+    }
+
+    @Benchmark
+    public int validateAll(final Throughput throughput) {
+        int followingTheRules = 0;
+        for (List<byte[]> page : this.pages) {
+            try {
+                if (this.validator.validate(page)) {
+                    followingTheRules++;
+                }
+            } catch (ParseCancellationException e) {
+                // A page breaking the rules counts as validated
+            }
+        }
+        throughput.processed(this.length, this.tokenCount, this.pages.size());
+        return followingTheRules;
+    }
+}
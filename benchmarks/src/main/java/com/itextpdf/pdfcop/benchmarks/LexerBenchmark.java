@@ -0,0 +1,94 @@
+/*
+    Copyright (c) 2023 iText Group NV
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+ */
+package com.itextpdf.pdfcop.benchmarks;
+
+import com.itextpdf.antlr.PdfStreamLexer;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.antlr.v4.runtime.Token;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Raw token throughput of the generated lexer over all pages of a test PDF. Lexer errors are not reported, the
+ * lexer recovers from them as it does by default.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LexerBenchmark {
+
+    @Param({ "input.pdf", "outlook.pdf", "flowcad.pdf", "opensource.pdf", "spunbysorcery.pdf", "inlineimage.pdf",
+            "cmp_fieldsJustificationTest02.pdf" })
+    public String pdf;
+
+    private List<List<byte[]>> pages;
+    private long length;
+    private PdfStreamLexer streamLexer;
+
+    @Setup
+    public void setUp() throws IOException {
+        this.pages = BenchmarkInputs.pages(BenchmarkInputs.pdf(this.pdf));
+        this.length = BenchmarkInputs.length(this.pages);
+        this.streamLexer = new PdfStreamLexer(null);
+        this.streamLexer.removeErrorListeners();
+    }
+
+    @Benchmark
+    public int lexDocument(final Throughput throughput) {
+        int tokens = 0;
+        int lastType = 0;
+        for (List<byte[]> page : this.pages) {
+            this.streamLexer.setInputStream(BenchmarkInputs.charStream(page));
+            Token token;
+            while ((token = this.streamLexer.nextToken()).getType() != Token.EOF) {
+                lastType = token.getType();
+                tokens++;
+            }
+        }
+        throughput.processed(this.length, tokens, this.pages.size());
+        return lastType;
+    }
+}
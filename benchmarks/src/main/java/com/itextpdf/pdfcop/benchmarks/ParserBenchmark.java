@@ -0,0 +1,121 @@
+/*
+    Copyright (c) 2023 iText Group NV
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+ */
+package com.itextpdf.pdfcop.benchmarks;
+
+import com.itextpdf.antlr.PdfStreamLexer;
+import com.itextpdf.antlr.PdfStreamParser;
+import com.itextpdf.pdfcop.ByteCharStream;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@code PdfStreamParser.content_stream()} alone on representative snippets: the snippet is lexed once, each
+ * operation parses the buffered tokens again.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+
+    // Every snippet is a unit of valid content repeated to a few kilobytes
+    private static final int REPETITIONS = 100;
+    private static final Map<String, String> SNIPPETS = new HashMap<>();
+
+    static {
+        SNIPPETS.put("text", "BT /F1 12 Tf 72 712 Td (Hello World) Tj [(A) -120 (B)] TJ 14 TL T* (next) ' ET\n");
+        SNIPPETS.put("path", "10.5 20 m 30 40.5 l 1.5 20 30 40 50 60 c h S 10 10 20 20 re W n\n");
+        SNIPPETS.put("colour", "q /DeviceRGB cs 0.1 0.2 0.3 rg 0.5 G 0.1 0.2 0.3 0.4 k /GS1 gs Q\n");
+        SNIPPETS.put("markedContent", "/P <</MCID 12>> BDC q 0.5 g BT /F1 12 Tf (x) Tj ET Q EMC\n");
+        SNIPPETS.put("xobjects", "q 1 0 0 1 310.57 679.89 cm /Fm1 Do Q\n");
+        SNIPPETS.put("inlineImage", "q BI /W 12 /H 12 /BPC 8 /CS /G ID 0123456789abcdef EI Q\n");
+    }
+
+    @Param({ "text", "path", "colour", "markedContent", "xobjects", "inlineImage" })
+    public String snippet;
+
+    @Param({ "LL", "SLL" })
+    public String predictionMode;
+
+    private CommonTokenStream tokens;
+    private PdfStreamParser streamParser;
+    private long length;
+
+    @Setup
+    public void setUp() {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < REPETITIONS; i++) {
+            content.append(SNIPPETS.get(this.snippet));
+        }
+        byte[] bytes = content.toString().getBytes(StandardCharsets.ISO_8859_1);
+        this.length = bytes.length;
+
+        PdfStreamLexer streamLexer = new PdfStreamLexer(ByteCharStream.fromBytes(bytes));
+        this.tokens = new CommonTokenStream(streamLexer);
+        this.tokens.fill();
+
+        this.streamParser = new PdfStreamParser(this.tokens);
+        this.streamParser.removeErrorListeners();
+        this.streamParser.setErrorHandler(new BailErrorStrategy());
+        this.streamParser.setBuildParseTree(false);
+        this.streamParser.getInterpreter().setPredictionMode(PredictionMode.valueOf(this.predictionMode));
+        // Fails the setup if the snippet doesn't follow the rules
+        this.streamParser.content_stream();
+    }
+
+    @Benchmark
+    public PdfStreamParser.Content_streamContext parse(final Throughput throughput) {
+        this.streamParser.reset();
+        PdfStreamParser.Content_streamContext context = this.streamParser.content_stream();
+        // EOF isn't counted, as for the other benchmarks, and the snippet makes one page
+        throughput.processed(this.length, this.tokens.size() - 1, 1);
+        return context;
+    }
+}
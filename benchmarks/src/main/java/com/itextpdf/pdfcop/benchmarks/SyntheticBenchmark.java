@@ -0,0 +1,104 @@
+/*
+    Copyright (c) 2023 iText Group NV
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+ */
+package com.itextpdf.pdfcop.benchmarks;
+
+import com.itextpdf.pdfcop.PdfCopValidator;
+import com.itextpdf.pdfcop.ValidationEngine;
+import com.itextpdf.pdfcop.ValidationProperties;
+import com.itextpdf.pdfcop.synthetic.OperationKind;
+import com.itextpdf.pdfcop.synthetic.SyntheticContentGenerator;
+import com.itextpdf.pdfcop.synthetic.SyntheticContentProperties;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Validation of one large generated content stream, to see how the engines scale past the test PDFs. The
+ * {@code mix} parameter either keeps the default operation weights or only generates one kind of operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SyntheticBenchmark {
+
+    private static final long SEED = 20230101;
+
+    @Param({ "65536", "1048576" })
+    public int size;
+
+    @Param({ "DEFAULT", "PATH", "TEXT" })
+    public String mix;
+
+    @Param({ "ANTLR", "BYTE_LEVEL" })
+    public String validationEngine;
+
+    private byte[] content;
+    private long tokenCount;
+    private PdfCopValidator validator;
+
+    @Setup
+    public void setUp() {
+        SyntheticContentProperties properties = new SyntheticContentProperties()
+                .setSeed(SEED)
+                .setPageSize(this.size);
+        if (! "DEFAULT".equals(this.mix)) {
+            for (OperationKind kind : OperationKind.values()) {
+                properties.setOperationWeight(kind, kind.name().equals(this.mix) ? 1 : 0);
+            }
+        }
+        this.content = new SyntheticContentGenerator(properties).nextContentStream();
+        this.tokenCount = BenchmarkInputs.tokenCount(
+                Collections.singletonList(Collections.singletonList(this.content)));
+        this.validator = new PdfCopValidator(new ValidationProperties()
+                .setValidationEngine(ValidationEngine.valueOf(this.validationEngine)));
+    }
+
+    @Benchmark
+    public boolean validate(final Throughput throughput) {
+        boolean followsTheRules = this.validator.validate(this.content);
+        throughput.processed(this.content.length, this.tokenCount, 1);
+        return followsTheRules;
+    }
+}
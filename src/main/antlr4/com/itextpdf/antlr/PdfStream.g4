@@ -29,6 +29,184 @@
  */
 grammar PdfStream;
 
+@lexer::members {
+    /**
+     * Default of {@link #setMaxNestingDepth(int)}, far deeper than sensible content while keeping the recursive
+     * parser rules (arrays, dictionaries, marked content sequences) far from a stack overflow.
+     */
+    public static final int DEFAULT_MAX_NESTING_DEPTH = 256;
+
+    /**
+     * Number of tokens between two calls of the checkpoint.
+     */
+    public static final int CHECKPOINT_INTERVAL = 1024;
+
+    private final LexerATNSimulator latin1Interpreter =
+            new Latin1LexerATNSimulator(this, _ATN, _decisionToDFA, _sharedContextCache);
+    private final InlineImageDictionary inlineImage = new InlineImageDictionary();
+    private long compatibilitySectionCharCount;
+    private int maxNestingDepth = DEFAULT_MAX_NESTING_DEPTH;
+    // Open arrays, dictionaries and marked content sequences
+    private int nestingDepth;
+    private long tokenCount;
+    private Runnable checkpoint;
+
+    /**
+     * Number of characters in the compatibility sections (BX and EX included) skipped since the last reset.
+     */
+    public long getCompatibilitySectionCharCount() {
+        return this.compatibilitySectionCharCount;
+    }
+
+    /**
+     * Number of tokens emitted since the last reset.
+     */
+    public long getTokenCount() {
+        return this.tokenCount;
+    }
+
+    /**
+     * Sets what to run every {@link #CHECKPOINT_INTERVAL} tokens, or {@code null}. Throwing from it stops the
+     * lexer, and the parser pulling its tokens, between two tokens.
+     */
+    public void setCheckpoint(final Runnable checkpoint) {
+        this.checkpoint = checkpoint;
+    }
+
+    public int getMaxNestingDepth() {
+        return this.maxNestingDepth;
+    }
+
+    /**
+     * Sets how deep arrays, dictionaries and marked content sequences may be nested, all of them together. Going
+     * deeper is a syntax error ending the token stream, so that the parser never recurses further.
+     */
+    public void setMaxNestingDepth(final int maxNestingDepth) {
+        this.maxNestingDepth = maxNestingDepth;
+    }
+
+    /**
+     * Returns the {@link Latin1LexerATNSimulator} doing the lexing. The simulator set up by the generated
+     * constructor, which can't be replaced there, is never used.
+     */
+    @Override
+    public LexerATNSimulator getInterpreter() {
+        return this.latin1Interpreter;
+    }
+
+    @Override
+    public Token nextToken() {
+        Token token = super.nextToken();
+        if (++this.tokenCount % CHECKPOINT_INTERVAL == 0 && this.checkpoint != null) {
+            this.checkpoint.run();
+        }
+        if (token.getType() == BEGIN_INLINE_IMAGE) {
+            this.inlineImage.begin();
+        } else if (this.inlineImage.isOpen()) {
+            this.inlineImage.token(token.getType(), token.getText());
+        }
+
+        switch (token.getType()) {
+            case LSQUARE:
+            case LDOUBLEANGLE:
+            case BEGIN_MARKED_CONTENT:
+            case BEGIN_MARKED_CONTENT_WITH_PROPERTIES:
+                if (++this.nestingDepth > this.maxNestingDepth) {
+                    return nestedTooDeep(token);
+                }
+                break;
+            case RSQUARE:
+            case RDOUBLEANGLE:
+            case END_MARKED_CONTENT:
+                // Unbalanced closings are left to the parser
+                this.nestingDepth = Math.max(this.nestingDepth - 1, 0);
+                break;
+            default:
+                break;
+        }
+        return token;
+    }
+
+    // Reports the token opening one level too many and ends the token stream there
+    private Token nestedTooDeep(final Token token) {
+        getErrorListenerDispatch().syntaxError(this, token, token.getLine(), token.getCharPositionInLine(),
+                "nesting deeper than " + this.maxNestingDepth + " levels at '" + token.getText() + "'", null);
+        _input.seek(_input.size());
+        return emitEOF();
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        this.compatibilitySectionCharCount = 0;
+        this.nestingDepth = 0;
+        this.tokenCount = 0;
+        this.inlineImage.end();
+    }
+
+    // Consumes the data of an inline image in one go. Without it (no white space after ID or no EI) the token is
+    // just the ID operator.
+    private void skipInlineImageData() {
+        long dataLength = this.inlineImage.isOpen() ? this.inlineImage.dataLength() : -1;
+        this.inlineImage.end();
+        int length = ContentSkipper.inlineImageData(_input, dataLength);
+        if (length < 0) {
+            setType(BEGIN_INLINE_IMAGE_DATA);
+            return;
+        }
+        consume(length);
+    }
+
+    private void skipLiteralString() {
+        consume(ContentSkipper.literalString(_input));
+    }
+
+    private void skipHexString() {
+        consume(ContentSkipper.hexString(_input));
+    }
+
+    // Consumes the rest of a token, a negative length is a token recognition error
+    private boolean consume(final int length) {
+        if (length < 0) {
+            notifyListeners(new LexerNoViableAltException(this, _input, _tokenStartCharIndex, null));
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            getInterpreter().consume(_input);
+        }
+        return true;
+    }
+
+    // Consumes a compatibility section in one go, an unterminated one is a token recognition error
+    private void skipCompatibilitySection() {
+        if (consume(ContentSkipper.compatibilitySection(_input))) {
+            this.compatibilitySectionCharCount += _input.index() - _tokenStartCharIndex;
+        }
+    }
+}
+
+@parser::members {
+    private boolean checkingOperandRanges = true;
+
+    public boolean isCheckingOperandRanges() {
+        return this.checkingOperandRanges;
+    }
+
+    /**
+     * Whether the ranges of the operands are checked on top of the syntax, which they are by default.
+     */
+    public void setCheckingOperandRanges(final boolean checkingOperandRanges) {
+        this.checkingOperandRanges = checkingOperandRanges;
+    }
+
+    // Operand constraints of the operators, on top of the syntax
+    private void require(final Token operand, final int numberClass) {
+        if (this.checkingOperandRanges && (NumberClassifier.classify(operand) & numberClass) == 0) {
+            notifyErrorListeners(operand, "operand out of range: '" + operand.getText() + "'", null);
+        }
+    }
+}
+
 // PARSER RULES --------------------------------------------------------------
 
 
@@ -62,31 +240,33 @@ generalGraphicsState
     : ( COMPATIBILITY | lineCap | lineJoin | lineWidth | miter | dashPattern | flatness | graphicsState | renderingIntent | saveState | restoreState | comment )+
     ;
 
-        // >= 0.0
+        // >= 0
         lineWidth
-            : POSITIVE_NUMBER LINE_WIDTH
+            : width=NUMBER LINE_WIDTH { require($width, NumberClassifier.NON_NEGATIVE); }
             ;
 
+        // 0, 1 or 2
         lineCap
-            : ('0' | '1' | '2') LINE_CAP
+            : style=NUMBER LINE_CAP { require($style, NumberClassifier.LINE_STYLE); }
             ;
 
+        // 0, 1 or 2
         lineJoin
-            : ('0' | '1' | '2') LINE_JOIN
+            : style=NUMBER LINE_JOIN { require($style, NumberClassifier.LINE_STYLE); }
             ;
 
-        // should be strictly > 0
+        // >= 0
         miter
-            : POSITIVE_NUMBER MITER_LIMIT
+            : limit=NUMBER MITER_LIMIT { require($limit, NumberClassifier.NON_NEGATIVE); }
             ;
 
         dashPattern
             : numberArray NUMBER DASH_PATTERN
             ;
 
-        // should be strictly > 0
+        // >= 0
         flatness
-            : POSITIVE_NUMBER FLATNESS_TOLERANCE
+            : tolerance=NUMBER FLATNESS_TOLERANCE { require($tolerance, NumberClassifier.NON_NEGATIVE); }
             ;
 
         graphicsState
@@ -131,7 +311,7 @@ color
             ;
 
         rgb
-            : RGB_TOKEN
+            : NUMBER NUMBER NUMBER ( STROKE_COLOUR_DEVICE_RGB | NON_STROKE_COLOUR_DEVICE_RGB )
             ;
 
         cmyk
@@ -186,9 +366,9 @@ textState
             : NUMBER TEXT_WORD_SPACE
             ;
 
-        // >0, percentage scale
+        // >= 0, percentage scale
         textScale
-            : POSITIVE_NUMBER TEXT_SCALE
+            : scale=NUMBER TEXT_SCALE { require($scale, NumberClassifier.NON_NEGATIVE); }
             ;
 
         leading
@@ -200,7 +380,7 @@ textState
             ;
 
         textRenderMode
-            : ('0' | '1' | '2' | '3' | '4' | '5' | '6' | '7') TEXT_RENDER_MODE 
+            : renderMode=NUMBER TEXT_RENDER_MODE { require($renderMode, NumberClassifier.SMALL_INTEGER); }
             ;
 
         textRise
@@ -328,14 +508,11 @@ stringPosArray
     : LSQUARE ((STRING NUMBER) | STRING | NUMBER)* RSQUARE
     ;
 
-RGB_TOKEN
-    : NUMBER WS NUMBER WS NUMBER WS (STROKE_COLOUR_DEVICE_RGB | NON_STROKE_COLOUR_DEVICE_RGB)
-    ;
-
 // LEXER TOKENS --------------------------------------------------------------
 
-// Inline image operators
-INLINE_DATA    : BEGIN_INLINE_IMAGE_DATA WS .*? END_INLINE_IMAGE; 
+// Inline image operators. The data is skipped by the action, using the length given or implied by the image
+// dictionary, or else up to the first EI standing alone (subclause 8.9.7 in ISO 32000-2:2020).
+INLINE_DATA    : BEGIN_INLINE_IMAGE_DATA { skipInlineImageData(); };
 
 // General Graphics State operators
 LINE_WIDTH                              : 'w';
@@ -463,30 +640,20 @@ fragment REVERSE_SOLIDUS: '\\';
 // PDF decimal point for real numbers
 fragment DOT            : '.';
 
-// PDF string object
-STRING         : STRING_LITERAL | STRING_HEX;
+// PDF string object. The actions scan the rest of the string in one pass, see ContentSkipper.
+// Literal strings: see subclause 7.3.4.2 Literal strings, ISO 32000-2:2020. Internal matching pairs of LPAREN and
+// RPAREN do not need escaping, unbalanced ones make the string unterminated. Any character may follow a
+// REVERSE_SOLIDUS. All strings (ASCII, text, byte, PDFDocEncoding, UTF-16BE and UTF-8) are valid.
+// Hex strings: zero hex digits is valid empty hex string. Implicit zero is appended for odd numbers of hex digits
+// and white space between the digits is ignored (see subclause 7.3.4.3 Hexadecimal strings)
+STRING         : LPAREN { skipLiteralString(); } | LANGLE { skipHexString(); };
 
-// PDF numeric object
+// PDF numeric object, the only numeric token. Ranges (>= 0, integer 0..7, ...) are checked by the parser rules of
+// the operators, see NumberClassifier.
 NUMBER         : INTEGER_NUMBER | REAL_NUMBER;
 
-// Zero hex digits is valid empty hex string.
-// Implicit zero is appended for odd numbers of hex digits (see subclause 7.3.4.3 Hexadecimal strings)
-fragment STRING_HEX : LANGLE (HEXDIGIT)* RANGLE;
-
-// Constrain to 0.0 <= input <= 1.0
-ZERO_TO_ONE_NUMBER : '+'? ( ('0' (DOT DIGIT*)?) | (DOT DIGIT+) | ('1' (DOT '0'*)?) );
-
-// >= 0
-POSITIVE_NUMBER: POSITIVE_INTEGER | POSITIVE_REAL;
-
 // Any integer
-INTEGER_NUMBER : ('-' | '+' )? DIGIT+;
-
-// >= 0
-fragment POSITIVE_INTEGER : '+'? DIGIT+;
-
-// >= 0.0
-fragment POSITIVE_REAL  : '+'? ( (DIGIT+ DOT DIGIT*) | (DIGIT* DOT DIGIT+) );
+fragment INTEGER_NUMBER : ('-' | '+' )? DIGIT+;
 
 // Any real number. No exponential or scientific formats allowed.
 fragment REAL_NUMBER    : ('-' | '+')? ( (DIGIT+ DOT DIGIT*) | (DIGIT* DOT DIGIT+) );
@@ -497,27 +664,6 @@ fragment HEXDIGIT       : 'a'..'f' | 'A'..'F' | DIGIT;
 // Decimal digit
 fragment DIGIT          : '0'..'9';
 
-// Table 3, ISO 32000-2:2020 literal string escape sequences (start with REVERSE SOLIDUS '\') and subsequent text.
-// Note this does **NOT** restrict input to 1-3 octal digits only as per ISO 32000-2:2020!
-fragment STRING_LITERAL_ESCAPE :
-                    REVERSE_SOLIDUS 
-                    ( 'r' | 't' | 'b' | 'f' | '(' | ')' | REVERSE_SOLIDUS | '0'..'7'+ | EOL )
-                    ;
-
-// See subclause 7.3.4.2 Literal strings, ISO 32000-2:2020
-// Note also that all strings (ASCII, text, byte, PDFDocEncoding, UTF-16BE and UTF-8) are all valid by this regex.
-// BCP-47 escape sequences in Unicode strings are also valid by this regex.
-// Internal matching pairs of LPAREN and RPAREN do not need escaping.
-// ANTLR4 ~ operator doesn't allow lexer rules so need to inline RPAREN.
-fragment STRING_LITERAL : LPAREN
-               (
-               '\u0000'..'\u0027'
-               | ('\u005c' '\u0028')
-               | '\u0029'..'\uffff'
-               )*
-               RPAREN
-               ;
-
 // See subclause 7.3.5 Name objects, ISO 32000-2:2020. 
 // Excludes all PDF delimiters, EOL and PDF whitespace characters.
 // ANTLR4 '~' operator doesn't allow using other lexer token names so need to inline everything.
@@ -538,8 +684,8 @@ fragment REGULAR_CHAR : ('\u0001'..'\u0008'   // exclude NUL, HT, LF
                | '\u007E'..'\u00ff'
                );
 
-// Table 33, ISO 32000-2:2020. It's the wild west beween BX and EX.
-COMPATIBILITY  : BEGIN_COMPATIBILITY_SECTION .*? END_COMPATIBILITY_SECTION;
+// Table 33, ISO 32000-2:2020. It's the wild west beween BX and EX, the action skips up to the matching EX.
+COMPATIBILITY  : BEGIN_COMPATIBILITY_SECTION { skipCompatibilitySection(); };
 
 // PDF comments start with '%' and finish at next EOL
 COMMENT        : '%' ~[\r\n]* EOL -> skip; 
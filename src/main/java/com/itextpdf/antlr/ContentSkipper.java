@@ -0,0 +1,201 @@
+/*
+    Copyright (c) 2023 iText Group NV
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+ */
+package com.itextpdf.antlr;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.IntStream;
+
+/**
+ * Hand-coded scanning of the parts of a content stream which are not worth running through the lexer ATN: they are
+ * skipped in one linear pass. Every method looks ahead from the current index of the input, {@code LA(1)} being
+ * the symbol right after what the lexer already matched, and returns how many symbols belong to the token, or -1
+ * when the input doesn't hold a complete one. The input itself is not moved.
+ * <p>
+ * Used by the actions of {@link PdfStreamLexer} and by the byte-level engine, so that both agree on every byte.
+ */
+public final class ContentSkipper {
+
+    private ContentSkipper() {
+    }
+
+    /**
+     * Inline image data following {@code ID}: a white-space byte, the data and {@code EI}. When the length of the
+     * data is known it is skipped at once, {@code EI} has to follow after optional white space. Otherwise, or if
+     * {@code EI} is not there, the data ends at the first {@code EI} standing alone between white space and a
+     * delimiter or the end of the input.
+     *
+     * @param dataLength number of bytes of the image data, -1 if unknown
+     */
+    public static int inlineImageData(final CharStream input, final long dataLength) {
+        if (! isWhiteSpace(input.LA(1))) {
+            return -1;
+        }
+
+        if (dataLength >= 0 && dataLength < Integer.MAX_VALUE - 2) {
+            int k = 2 + (int) dataLength;
+            while (isWhiteSpace(input.LA(k))) {
+                k++;
+            }
+            if (input.LA(k) == 'E' && input.LA(k + 1) == 'I' && isDelimiterOrEnd(input.LA(k + 2))) {
+                return k + 1;
+            }
+        }
+
+        for (int k = 2; ; k++) {
+            int c = input.LA(k);
+            if (c == IntStream.EOF) {
+                return -1;
+            }
+            if (c == 'E' && input.LA(k + 1) == 'I' && isWhiteSpace(input.LA(k - 1))
+                    && isDelimiterOrEnd(input.LA(k + 2))) {
+                return k + 1;
+            }
+        }
+    }
+
+    /**
+     * Literal string following {@code (}, up to the matching {@code )}. Unescaped parentheses have to be balanced
+     * within the string (subclause 7.3.4.2 in ISO 32000-2:2020).
+     */
+    public static int literalString(final CharStream input) {
+        int end = literalStringEnd(input, 1);
+        return end < 0 ? -1 : end - 1;
+    }
+
+    /**
+     * Hexadecimal string following {@code <}, up to {@code >}. White space between the digits is ignored
+     * (subclause 7.3.4.3 in ISO 32000-2:2020).
+     */
+    public static int hexString(final CharStream input) {
+        int k = 1;
+        while (isHexDigit(input.LA(k)) || isWhiteSpace(input.LA(k))) {
+            k++;
+        }
+        return input.LA(k) == '>' ? k : -1;
+    }
+
+    /**
+     * Compatibility section following {@code BX}, up to the matching {@code EX}. Nested sections are allowed (subclause
+     * 7.8.2 in ISO 32000-2:2020), so {@code BX} and {@code EX} operators are counted. The content is still made of
+     * PDF objects, strings, names and comments are passed over so that an {@code EX} within them doesn't count.
+     */
+    public static int compatibilitySection(final CharStream input) {
+        int depth = 1;
+        int k = 1;
+        while (true) {
+            int c = input.LA(k);
+            switch (c) {
+                case IntStream.EOF:
+                    return -1;
+                case '(':
+                    k = literalStringEnd(input, k + 1);
+                    if (k < 0) {
+                        return -1;
+                    }
+                    break;
+                case '%':
+                    while (input.LA(k) != '\r' && input.LA(k) != '\n' && input.LA(k) != IntStream.EOF) {
+                        k++;
+                    }
+                    break;
+                case '/':
+                    k++;
+                    while (! isDelimiterOrEnd(input.LA(k))) {
+                        k++;
+                    }
+                    break;
+                default:
+                    if (isDelimiterOrEnd(c)) {
+                        k++;
+                        break;
+                    }
+                    // An operator, possibly right after BX
+                    int operatorStart = k;
+                    while (! isDelimiterOrEnd(input.LA(k))) {
+                        k++;
+                    }
+                    if (k - operatorStart == 2 && input.LA(operatorStart + 1) == 'X') {
+                        if (c == 'B') {
+                            depth++;
+                        } else if (c == 'E' && --depth == 0) {
+                            return k - 1;
+                        }
+                    }
+            }
+        }
+    }
+
+    // Index following the literal string whose content starts at LA(k), -1 if it isn't terminated
+    private static int literalStringEnd(final CharStream input, final int k) {
+        int depth = 1;
+        for (int i = k; ; i++) {
+            int c = input.LA(i);
+            if (c == IntStream.EOF) {
+                return -1;
+            }
+            if (c == '\\') {
+                // Whatever follows is escaped: a parenthesis, a backslash, an octal digit or an EOL
+                i++;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return i + 1;
+            }
+        }
+    }
+
+    private static boolean isHexDigit(final int c) {
+        return c >= '0' && c <= '9' || c >= 'a' && c <= 'f' || c >= 'A' && c <= 'F';
+    }
+
+    // WS of the grammar
+    static boolean isWhiteSpace(final int c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == 0x00 || c == 0x0C;
+    }
+
+    static boolean isDelimiterOrEnd(final int c) {
+        switch (c) {
+            case IntStream.EOF:
+            case '(':
+            case ')':
+            case '<':
+            case '>':
+            case '[':
+            case ']':
+            case '{':
+            case '}':
+            case '/':
+            case '%':
+                return true;
+            default:
+                return isWhiteSpace(c);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+    Copyright (c) 2023 iText Group NV
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+ */
+package com.itextpdf.antlr;
+
+/**
+ * Follows the tokens of an inline image dictionary, from {@code BI} to {@code ID}, to work out how many bytes of
+ * data follow. That is either the value of {@code /L} (or {@code /Length}) or, for unfiltered images, the size
+ * computed from the width, height, bits per component and colour space.
+ */
+public final class InlineImageDictionary {
+
+    private boolean open;
+    private String key;
+    // Nesting of arrays and dictionaries within the current value
+    private int depth;
+    private long width;
+    private long height;
+    private long bitsPerComponent;
+    private int components;
+    private long length;
+    private boolean filtered;
+    private boolean imageMask;
+
+    /**
+     * Whether the tokens are those of an inline image dictionary.
+     */
+    public boolean isOpen() {
+        return this.open;
+    }
+
+    /**
+     * Starts a dictionary, at {@code BI}.
+     */
+    public void begin() {
+        this.open = true;
+        this.key = null;
+        this.depth = 0;
+        this.width = -1;
+        this.height = -1;
+        this.bitsPerComponent = -1;
+        this.components = -1;
+        this.length = -1;
+        this.filtered = false;
+        this.imageMask = false;
+    }
+
+    /**
+     * Ends the dictionary, at {@code ID}.
+     */
+    public void end() {
+        this.open = false;
+    }
+
+    /**
+     * Takes the next token of the dictionary.
+     */
+    public void token(final int type, final String text) {
+        if (type == PdfStreamLexer.LSQUARE || type == PdfStreamLexer.LDOUBLEANGLE) {
+            this.depth++;
+            return;
+        }
+        if (type == PdfStreamLexer.RSQUARE || type == PdfStreamLexer.RDOUBLEANGLE) {
+            this.depth--;
+            if (this.depth <= 0) {
+                this.depth = 0;
+                this.key = null;
+            }
+            return;
+        }
+
+        if (this.depth > 0) {
+            // Within an array: filter names and the base of Indexed colour spaces
+            if (this.key != null && type == PdfStreamLexer.PDF_NAME) {
+                if (isKey("/F", "/Filter")) {
+                    this.filtered = true;
+                } else if (isKey("/CS", "/ColorSpace") && this.components < 0) {
+                    this.components = components(text);
+                }
+            }
+            return;
+        }
+
+        if (this.key == null) {
+            if (type == PdfStreamLexer.PDF_NAME) {
+                this.key = text;
+            }
+            return;
+        }
+
+        if (isKey("/W", "/Width")) {
+            this.width = integer(text);
+        } else if (isKey("/H", "/Height")) {
+            this.height = integer(text);
+        } else if (isKey("/BPC", "/BitsPerComponent")) {
+            this.bitsPerComponent = integer(text);
+        } else if (isKey("/CS", "/ColorSpace")) {
+            this.components = components(text);
+        } else if (isKey("/L", "/Length")) {
+            this.length = integer(text);
+        } else if (isKey("/F", "/Filter")) {
+            this.filtered = true;
+        } else if (isKey("/IM", "/ImageMask")) {
+            this.imageMask = "true".equals(text);
+        }
+        this.key = null;
+    }
+
+    /**
+     * Returns the number of bytes of image data, -1 when it can't be known before reading the data.
+     */
+    public long dataLength() {
+        if (this.length >= 0) {
+            return this.length;
+        }
+        if (this.filtered) {
+            return -1;
+        }
+
+        long bits = this.imageMask ? 1 : this.bitsPerComponent;
+        int samples = this.imageMask ? 1 : this.components;
+        if (this.width < 0 || this.height < 0 || bits <= 0 || samples <= 0) {
+            return -1;
+        }
+        return this.height * ((this.width * bits * samples + 7) / 8);
+    }
+
+    private boolean isKey(final String abbreviation, final String name) {
+        return abbreviation.equals(this.key) || name.equals(this.key);
+    }
+
+    // Number of colour components of a colour space, -1 for named resources
+    private static int components(final String name) {
+        switch (name) {
+            case "/G":
+            case "/DeviceGray":
+            case "/I":
+            case "/Indexed":
+                return 1;
+            case "/RGB":
+            case "/DeviceRGB":
+                return 3;
+            case "/CMYK":
+            case "/DeviceCMYK":
+                return 4;
+            default:
+                return -1;
+        }
+    }
+
+    private static long integer(final String text) {
+        long value = 0;
+        int i = text.startsWith("+") ? 1 : 0;
+        if (i == text.length()) {
+            return -1;
+        }
+        for (; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '.') {
+                // Only integral reals such as 16.0
+                for (int j = i + 1; j < text.length(); j++) {
+                    if (text.charAt(j) != '0') {
+                        return -1;
+                    }
+                }
+                return value;
+            }
+            if (c < '0' || c > '9' || value > Integer.MAX_VALUE) {
+                return -1;
+            }
+            value = value * 10 + c - '0';
+        }
+        return value;
+    }
+}
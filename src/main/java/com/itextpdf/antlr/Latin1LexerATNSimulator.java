@@ -0,0 +1,68 @@
+/*
+    Copyright (c) 2023 iText Group NV
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+ */
+package com.itextpdf.antlr;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.atn.ATN;
+import org.antlr.v4.runtime.atn.LexerATNSimulator;
+import org.antlr.v4.runtime.atn.PredictionContextCache;
+import org.antlr.v4.runtime.dfa.DFA;
+import org.antlr.v4.runtime.dfa.DFAState;
+
+/**
+ * Lexer simulator which keeps bytes 0x80 to 0xFF on the DFA. ANTLR caches DFA edges for symbols 0 to 127 only,
+ * every other symbol goes through the ATN each time it is seen, which makes strings, names and comments full of
+ * high bytes slow to lex. All lexer rules of the grammar treat 0x7F to 0xFF alike (they are regular characters,
+ * string and comment content), so the edges of 0x7F are taken for them.
+ * <p>
+ * Only the choice of the DFA edge changes, the input and the text of the tokens are left as they are.
+ */
+final class Latin1LexerATNSimulator extends LexerATNSimulator {
+
+    Latin1LexerATNSimulator(final Lexer recog, final ATN atn, final DFA[] decisionToDFA,
+            final PredictionContextCache sharedContextCache) {
+        super(recog, atn, decisionToDFA, sharedContextCache);
+    }
+
+    @Override
+    protected DFAState getExistingTargetState(final DFAState s, final int t) {
+        return super.getExistingTargetState(s, fold(t));
+    }
+
+    @Override
+    protected DFAState computeTargetState(final CharStream input, final DFAState s, final int t) {
+        return super.computeTargetState(input, s, fold(t));
+    }
+
+    private static int fold(final int t) {
+        return t > 0x7F && t <= 0xFF ? 0x7F : t;
+    }
+}
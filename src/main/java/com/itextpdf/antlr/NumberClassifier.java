@@ -0,0 +1,136 @@
+/*
+    Copyright (c) 2023 iText Group NV
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+ */
+package com.itextpdf.antlr;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.Token;
+
+/**
+ * Classifies the text of a NUMBER token without allocating: the lexer has a single numeric token and the operand
+ * constraints of the operators (line width, line cap, text rendering mode, ...) are checked on its classes.
+ * <p>
+ * The classes are bit flags.
+ */
+public final class NumberClassifier {
+
+    /**
+     * No decimal point (subclause 7.3.3 in ISO 32000-2:2020).
+     */
+    public static final int INTEGER = 1;
+    /**
+     * {@code >= 0}, negative zero included.
+     */
+    public static final int NON_NEGATIVE = 2;
+    /**
+     * {@code > 0}.
+     */
+    public static final int POSITIVE = 4;
+    /**
+     * {@code 0 <= n <= 1}.
+     */
+    public static final int ZERO_TO_ONE = 8;
+    /**
+     * Integer from 0 to 7, the range of the text rendering modes.
+     */
+    public static final int SMALL_INTEGER = 16;
+    /**
+     * Integer from 0 to 2, the range of the line cap and line join styles.
+     */
+    public static final int LINE_STYLE = 32;
+
+    private NumberClassifier() {
+    }
+
+    public static int classify(final Token number) {
+        return classify(number.getInputStream(), number.getStartIndex(), number.getStopIndex());
+    }
+
+    /**
+     * Classifies the characters from {@code start} to {@code stop} (inclusive) of the input, which have to form a
+     * NUMBER. They are read relative to the current index, which is left as it is.
+     */
+    public static int classify(final CharStream input, final int start, final int stop) {
+        final int index = input.index();
+        int i = start;
+        boolean negative = false;
+        int c = charAt(input, index, i);
+        if (c == '+' || c == '-') {
+            negative = c == '-';
+            i++;
+        }
+
+        boolean integer = true;
+        boolean zero = true;
+        boolean fraction = false;
+        // Saturated at 10, only 0 to 7 matter
+        int integerPart = 0;
+        for (; i <= stop; i++) {
+            c = charAt(input, index, i);
+            if (c == '.') {
+                integer = false;
+                continue;
+            }
+            int digit = c - '0';
+            if (digit != 0) {
+                zero = false;
+                fraction |= ! integer;
+            }
+            if (integer) {
+                integerPart = Math.min(integerPart * 10 + digit, 10);
+            }
+        }
+
+        int classes = 0;
+        if (integer) {
+            classes |= INTEGER;
+        }
+        if (negative && ! zero) {
+            return classes;
+        }
+        classes |= NON_NEGATIVE;
+        if (! zero) {
+            classes |= POSITIVE;
+        }
+        if (integerPart == 0 || integerPart == 1 && ! fraction) {
+            classes |= ZERO_TO_ONE;
+        }
+        if (integer && integerPart <= 7) {
+            classes |= SMALL_INTEGER;
+        }
+        if (integer && integerPart <= 2) {
+            classes |= LINE_STYLE;
+        }
+        return classes;
+    }
+
+    private static int charAt(final CharStream input, final int index, final int i) {
+        return i < index ? input.LA(i - index) : input.LA(i - index + 1);
+    }
+}
@@ -0,0 +1,179 @@
+/*
+    Copyright (c) 2023 iText Group NV
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+ */
+package com.itextpdf.pdfcop;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.misc.Interval;
+
+/**
+ * An 8-bit {@link CharStream} reading straight from decoded content stream bytes. Every byte is one symbol
+ * in the range 0x00..0xFF, so binary data (inline images, byte strings) reaches the lexer unchanged and no
+ * charset decoding or copying takes place.
+ */
+public final class ByteCharStream implements CharStream {
+
+    private final byte[] array;
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final int size;
+    private final String name;
+
+    private int position;
+
+    private ByteCharStream(final byte[] array, final ByteBuffer buffer, final int offset, final int size,
+            final String name) {
+        this.array = array;
+        this.buffer = buffer;
+        this.offset = offset;
+        this.size = size;
+        this.name = name;
+    }
+
+    public static ByteCharStream fromBytes(final byte[] bytes) {
+        return fromBytes(bytes, 0, bytes.length);
+    }
+
+    public static ByteCharStream fromBytes(final byte[] bytes, final int offset, final int length) {
+        if (offset < 0 || length < 0 || offset + length > bytes.length) {
+            throw new IndexOutOfBoundsException("offset " + offset + ", length " + length + " for " + bytes.length
+                    + " bytes");
+        }
+
+        return new ByteCharStream(bytes, null, offset, length, IntStream.UNKNOWN_SOURCE_NAME);
+    }
+
+    /**
+     * Reads the remaining bytes of the buffer, i.e. from its position up to its limit. The buffer itself is not
+     * modified.
+     */
+    public static ByteCharStream fromBuffer(final ByteBuffer buffer) {
+        if (buffer.hasArray()) {
+            return new ByteCharStream(buffer.array(), null, buffer.arrayOffset() + buffer.position(),
+                    buffer.remaining(), IntStream.UNKNOWN_SOURCE_NAME);
+        }
+
+        return new ByteCharStream(null, buffer, buffer.position(), buffer.remaining(), IntStream.UNKNOWN_SOURCE_NAME);
+    }
+
+    @Override
+    public void consume() {
+        if (this.position >= this.size) {
+            throw new IllegalStateException("cannot consume EOF");
+        }
+
+        this.position++;
+    }
+
+    @Override
+    public int LA(final int i) {
+        int index;
+        if (i > 0) {
+            index = this.position + i - 1;
+            if (index >= this.size) {
+                return IntStream.EOF;
+            }
+        } else if (i < 0) {
+            index = this.position + i;
+            if (index < 0) {
+                return IntStream.EOF;
+            }
+        } else {
+            // LA(0) is undefined
+            return 0;
+        }
+
+        return byteAt(index);
+    }
+
+    @Override
+    public int mark() {
+        return -1;
+    }
+
+    @Override
+    public void release(final int marker) {
+    }
+
+    @Override
+    public int index() {
+        return this.position;
+    }
+
+    @Override
+    public void seek(final int index) {
+        this.position = Math.min(Math.max(index, 0), this.size);
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public String getSourceName() {
+        return this.name;
+    }
+
+    @Override
+    public String getText(final Interval interval) {
+        int start = Math.min(interval.a, this.size);
+        int length = Math.min(interval.b - interval.a + 1, this.size - start);
+        if (length <= 0) {
+            return "";
+        }
+
+        if (this.array != null) {
+            return new String(this.array, this.offset + start, length, StandardCharsets.ISO_8859_1);
+        }
+
+        byte[] text = new byte[length];
+        for (int i = 0; i < length; i++) {
+            text[i] = this.buffer.get(this.offset + start + i);
+        }
+        return new String(text, StandardCharsets.ISO_8859_1);
+    }
+
+    @Override
+    public String toString() {
+        return getText(Interval.of(0, this.size - 1));
+    }
+
+    private int byteAt(final int index) {
+        if (this.array != null) {
+            return this.array[this.offset + index] & 0xFF;
+        }
+
+        return this.buffer.get(this.offset + index) & 0xFF;
+    }
+}
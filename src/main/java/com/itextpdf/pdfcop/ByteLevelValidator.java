@@ -0,0 +1,600 @@
+/*
+    Copyright (c) 2023 iText Group NV
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+ */
+package com.itextpdf.pdfcop;
+
+import com.itextpdf.antlr.PdfStreamLexer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.antlr.v4.runtime.Token;
+
+/**
+ * Hand-written validator accepting exactly the language of the PdfStream grammar, without ANTLR. Tokens come from
+ * a {@link ContentStreamScanner} and are checked by an explicit state machine: operands are collected on a stack
+ * and matched against the {@link OperatorSignature} of the operator which follows them, text objects and marked
+ * content sequences are tracked on a stack of frames and path objects by a small path state.
+ * <p>
+ * An instance is not thread-safe. Its stacks and page buffer are kept from one page to the next; the content
+ * streams of a page made of several streams are copied into that buffer, and the scanner allocates as described
+ * in {@link ContentStreamScanner}.
+ */
+final class ByteLevelValidator {
+
+    // Frames
+    private static final int TEXT_OBJECT = 1;
+    private static final int MARKED_CONTENT = 2;
+
+    // Path states within content_stream_level
+    private static final int NO_PATH = 0;
+    // A path made of a single m or re operator
+    private static final int SINGLE_SEGMENT_PATH = 1;
+    private static final int PATH = 2;
+    // (m | re) COMPATIBILITY may be a complete path object or the start of a longer one
+    private static final int SINGLE_SEGMENT_PATH_AND_COMPATIBILITY = 3;
+    private static final int CLIPPED_PATH = 4;
+
+    // Container flags
+    private static final int ONLY_NUMBERS = 1;
+    private static final int ONLY_TEXT = 2;
+    private static final int DICTIONARY_VALUE = 4;
+
+    // Inline image states
+    private static final int NO_IMAGE = 0;
+    private static final int IMAGE_KEY = 1;
+    private static final int IMAGE_VALUE = 2;
+    private static final int IMAGE_KEY_OR_DATA = 3;
+
+    private final ContentStreamScanner scanner = new ContentStreamScanner();
+    private final ValidationStatistics statistics;
+    private final int maxNestingDepth;
+    private final ValidationLevel validationLevel;
+
+    // Kinds of the operands, see OperatorSignature
+    private int[] operands = new int[16];
+    private int operandCount;
+    // Bytes of the first operand, for operators constraining the range of a number
+    private int firstOperandStart;
+    private int firstOperandEnd;
+    private int[] frames = new int[16];
+    private int frameCount;
+    private int markedContentDepth;
+    private int pathState;
+    private int imageState;
+    // Open arrays (LSQUARE) and dictionaries (LDOUBLEANGLE) with their flags
+    private int[] containers = new int[16];
+    private int[] containerFlags = new int[16];
+    private int containerCount;
+
+    // Concatenation buffer for pages made of several content streams, reused from page to page
+    private byte[] pageBuffer = new byte[0];
+    private int[] streamStarts = new int[0];
+    private int streamCount;
+
+    private byte[] bytes;
+    private int offset;
+    // Type of the token being checked, for violations
+    private int tokenType;
+    // Collects the violations in place of throwing them, null when validating
+    private ViolationCollector violations;
+    // Skipping tokens up to the next operator after a violation
+    private boolean resynchronizing;
+    // Guard of the content being checked, null when unlimited
+    private ValidationGuard guard;
+    private long tokenCount;
+
+    ByteLevelValidator(final ValidationStatistics statistics, final int maxNestingDepth,
+            final ValidationLevel validationLevel) {
+        this.statistics = statistics;
+        this.maxNestingDepth = maxNestingDepth;
+        this.validationLevel = validationLevel;
+    }
+
+    void setGuard(final ValidationGuard guard) {
+        this.guard = guard;
+    }
+
+    void validate(final byte[] content, final int offset, final int length) {
+        this.streamCount = 0;
+        run(content, offset, length);
+    }
+
+    /**
+     * Validates the content streams of a page as one stream, the boundaries between them being white space.
+     */
+    void validate(final List<byte[]> contentStreams) {
+        validate(contentStreams, null);
+    }
+
+    /**
+     * Same as {@link #validate(List)}, collecting the violations instead of throwing the first one when
+     * {@code violations} isn't {@code null}.
+     */
+    void validate(final List<byte[]> contentStreams, final ViolationCollector violations) {
+        this.violations = violations;
+        if (contentStreams.size() == 1) {
+            this.streamCount = 0;
+            run(contentStreams.get(0), 0, contentStreams.get(0).length);
+            return;
+        }
+
+        int length = Math.max(contentStreams.size() - 1, 0);
+        for (byte[] contentStream : contentStreams) {
+            length += contentStream.length;
+        }
+        if (this.pageBuffer.length < length) {
+            this.pageBuffer = new byte[Math.max(length, this.pageBuffer.length * 2)];
+        }
+        if (this.streamStarts.length < contentStreams.size()) {
+            this.streamStarts = new int[contentStreams.size()];
+        }
+
+        int at = 0;
+        for (int i = 0; i < contentStreams.size(); i++) {
+            byte[] contentStream = contentStreams.get(i);
+            if (i > 0) {
+                this.pageBuffer[at++] = '\n';
+            }
+            this.streamStarts[i] = at;
+            System.arraycopy(contentStream, 0, this.pageBuffer, at, contentStream.length);
+            at += contentStream.length;
+        }
+        this.streamCount = contentStreams.size();
+
+        run(this.pageBuffer, 0, length);
+    }
+
+    private void run(final byte[] content, final int offset, final int length) {
+        this.bytes = content;
+        this.offset = offset;
+        this.operandCount = 0;
+        this.frameCount = 0;
+        this.markedContentDepth = 0;
+        this.pathState = NO_PATH;
+        this.imageState = NO_IMAGE;
+        this.containerCount = 0;
+        this.resynchronizing = false;
+        this.tokenCount = 0;
+        this.scanner.reset(content, offset, length);
+
+        try {
+            if (this.validationLevel == ValidationLevel.LEXICAL) {
+                scan();
+                return;
+            }
+            int type;
+            while ((type = this.scanner.next()) != Token.EOF) {
+                checkpoint();
+                if (type == ContentStreamScanner.ERROR) {
+                    // The scanner doesn't go any further
+                    this.tokenType = Token.INVALID_TYPE;
+                    report(violation("token recognition error"));
+                } else if (this.resynchronizing) {
+                    this.resynchronizing = OperatorSignature.isOperand(type);
+                } else {
+                    this.tokenType = type;
+                    try {
+                        accept(type);
+                    } catch (ContentStreamViolation e) {
+                        report(e);
+                        resynchronize(type);
+                    }
+                }
+            }
+            this.tokenType = Token.EOF;
+            try {
+                end();
+            } catch (ContentStreamViolation e) {
+                report(e);
+            }
+        } finally {
+            if (this.guard != null) {
+                this.guard.lastTokens(this.tokenCount % PdfStreamLexer.CHECKPOINT_INTERVAL);
+            }
+            this.statistics.compatibilitySectionsSkipped(this.scanner.compatibilitySectionByteCount());
+            this.bytes = null;
+            this.violations = null;
+        }
+    }
+
+    // The tokens alone, with the nesting limit of the lexer
+    private void scan() {
+        int depth = 0;
+        int type;
+        while ((type = this.scanner.next()) != Token.EOF) {
+            checkpoint();
+            switch (type) {
+                case ContentStreamScanner.ERROR:
+                    this.tokenType = Token.INVALID_TYPE;
+                    report(violation("token recognition error"));
+                    return;
+                case PdfStreamLexer.LSQUARE:
+                case PdfStreamLexer.LDOUBLEANGLE:
+                case PdfStreamLexer.BEGIN_MARKED_CONTENT:
+                case PdfStreamLexer.BEGIN_MARKED_CONTENT_WITH_PROPERTIES:
+                    if (++depth > this.maxNestingDepth) {
+                        // The lexer ends the token stream there
+                        this.tokenType = type;
+                        report(violation("nesting deeper than " + this.maxNestingDepth + " levels"));
+                        return;
+                    }
+                    break;
+                case PdfStreamLexer.RSQUARE:
+                case PdfStreamLexer.RDOUBLEANGLE:
+                case PdfStreamLexer.END_MARKED_CONTENT:
+                    depth = Math.max(depth - 1, 0);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    // Same rhythm as the checkpoints of the lexer
+    private void checkpoint() {
+        if (++this.tokenCount % PdfStreamLexer.CHECKPOINT_INTERVAL == 0 && this.guard != null) {
+            this.guard.tokens(PdfStreamLexer.CHECKPOINT_INTERVAL);
+        }
+    }
+
+    private void report(final ContentStreamViolation violation) {
+        if (this.violations == null) {
+            throw violation;
+        }
+        this.violations.add(violation);
+    }
+
+    // Goes on after a violation with the operator following the offending token, text objects and marked content
+    // sequences staying open
+    private void resynchronize(final int type) {
+        this.operandCount = 0;
+        this.containerCount = 0;
+        this.imageState = NO_IMAGE;
+        this.pathState = NO_PATH;
+        this.resynchronizing = OperatorSignature.isOperand(type);
+    }
+
+    private void accept(final int type) {
+        if (this.containerCount > 0) {
+            element(type);
+            return;
+        }
+        if (this.imageState != NO_IMAGE) {
+            inlineImage(type);
+            return;
+        }
+
+        switch (type) {
+            case PdfStreamLexer.NUMBER:
+                push(OperatorSignature.NUMBER);
+                return;
+            case PdfStreamLexer.PDF_NAME:
+                push(OperatorSignature.NAME);
+                return;
+            case PdfStreamLexer.STRING:
+                push(OperatorSignature.STRING);
+                return;
+            case PdfStreamLexer.LSQUARE:
+            case PdfStreamLexer.LDOUBLEANGLE:
+                open(type);
+                return;
+            default:
+                operator(type);
+        }
+    }
+
+    private void operator(final int type) {
+        boolean compatibility = type == PdfStreamLexer.COMPATIBILITY;
+        OperatorSignature signature = OperatorSignature.of(type);
+        if (compatibility || signature != null && signature.getContext() == OperatorSignature.PATH_OBJECT) {
+            if (this.pathState != NO_PATH || ! inTextObject()) {
+                pathOperator(signature);
+                return;
+            }
+        } else if (this.pathState == SINGLE_SEGMENT_PATH_AND_COMPATIBILITY) {
+            // The path object ended with its compatibility section
+            this.pathState = NO_PATH;
+        } else if (this.pathState != NO_PATH) {
+            throw violation("unexpected operator in path object");
+        }
+
+        if (compatibility) {
+            if (this.operandCount > 0) {
+                throw violation("unexpected operator");
+            }
+            return;
+        }
+        // Type 3 glyph operators, ID, EI and other tokens the grammar never accepts here have no signature
+        if (signature == null || ! inContext(signature.getContext()) || ! operands(signature)) {
+            throw violation("unexpected operator");
+        }
+
+        switch (signature.getTransition()) {
+            case OperatorSignature.BEGIN_TEXT_OBJECT:
+                pushFrame(TEXT_OBJECT);
+                break;
+            case OperatorSignature.END_TEXT_OBJECT:
+                this.frameCount--;
+                break;
+            case OperatorSignature.BEGIN_MARKED_CONTENT:
+                requireNestingDepth();
+                pushFrame(MARKED_CONTENT);
+                this.markedContentDepth++;
+                break;
+            case OperatorSignature.END_MARKED_CONTENT:
+                if (this.frameCount == 0 || this.frames[this.frameCount - 1] != MARKED_CONTENT) {
+                    throw violation("unexpected operator");
+                }
+                this.frameCount--;
+                this.markedContentDepth--;
+                break;
+            case OperatorSignature.BEGIN_INLINE_IMAGE:
+                this.imageState = IMAGE_KEY;
+                break;
+            default:
+                break;
+        }
+        this.operandCount = 0;
+    }
+
+    // Path construction, clipping and painting operators and compatibility sections (no signature) outside text
+    // objects
+    private void pathOperator(final OperatorSignature signature) {
+        if (signature == null) {
+            if (this.operandCount > 0) {
+                throw violation("unexpected compatibility section");
+            }
+            if (this.pathState == CLIPPED_PATH) {
+                throw violation("unexpected compatibility section in path object");
+            }
+            if (this.pathState == SINGLE_SEGMENT_PATH) {
+                this.pathState = SINGLE_SEGMENT_PATH_AND_COMPATIBILITY;
+            }
+            return;
+        }
+
+        boolean validOperands = operands(signature);
+        switch (signature.getTransition()) {
+            case OperatorSignature.BEGIN_SUBPATH:
+                requirePathConstruction(validOperands);
+                this.pathState = this.pathState != PATH && this.pathState != SINGLE_SEGMENT_PATH
+                        ? SINGLE_SEGMENT_PATH : PATH;
+                break;
+            case OperatorSignature.EXTEND_PATH:
+                requirePathConstruction(validOperands);
+                this.pathState = PATH;
+                break;
+            case OperatorSignature.CLIP_PATH:
+                requirePathConstruction(validOperands);
+                this.pathState = CLIPPED_PATH;
+                break;
+            default:
+                // Path painting
+                if (! validOperands) {
+                    throw violation("unexpected operator");
+                }
+                this.pathState = NO_PATH;
+        }
+        this.operandCount = 0;
+    }
+
+    private void requirePathConstruction(final boolean validOperands) {
+        if (! validOperands || this.pathState == CLIPPED_PATH) {
+            throw violation("unexpected operator");
+        }
+    }
+
+    private void inlineImage(final int type) {
+        switch (type) {
+            case PdfStreamLexer.PDF_NAME:
+                this.imageState = this.imageState == IMAGE_VALUE ? IMAGE_KEY_OR_DATA : IMAGE_VALUE;
+                return;
+            case PdfStreamLexer.INLINE_DATA:
+                if (this.imageState != IMAGE_KEY_OR_DATA) {
+                    throw violation("unexpected inline image data");
+                }
+                this.imageState = NO_IMAGE;
+                return;
+            case PdfStreamLexer.LSQUARE:
+            case PdfStreamLexer.LDOUBLEANGLE:
+                if (this.imageState != IMAGE_VALUE) {
+                    throw violation("unexpected inline image key");
+                }
+                open(type);
+                return;
+            default:
+                if (this.imageState != IMAGE_VALUE || ! isSimpleValue(type)) {
+                    throw violation("unexpected token in inline image");
+                }
+                this.imageState = IMAGE_KEY_OR_DATA;
+        }
+    }
+
+    // A token within an array or a dictionary
+    private void element(final int type) {
+        int top = this.containerCount - 1;
+        int flags = this.containerFlags[top];
+        if (this.containers[top] == PdfStreamLexer.LSQUARE) {
+            switch (type) {
+                case PdfStreamLexer.RSQUARE:
+                    this.containerCount--;
+                    closed((flags & ONLY_NUMBERS) != 0 ? OperatorSignature.NUMBER_ARRAY
+                            : (flags & ONLY_TEXT) != 0 ? OperatorSignature.TEXT_ARRAY : OperatorSignature.ARRAY);
+                    return;
+                case PdfStreamLexer.NUMBER:
+                    return;
+                case PdfStreamLexer.STRING:
+                    this.containerFlags[top] = flags & ~ONLY_NUMBERS;
+                    return;
+                case PdfStreamLexer.LSQUARE:
+                case PdfStreamLexer.LDOUBLEANGLE:
+                    this.containerFlags[top] = 0;
+                    open(type);
+                    return;
+                default:
+                    if (! isSimpleValue(type)) {
+                        throw violation("unexpected token in array");
+                    }
+                    this.containerFlags[top] = 0;
+                    return;
+            }
+        }
+
+        if ((flags & DICTIONARY_VALUE) == 0) {
+            if (type == PdfStreamLexer.RDOUBLEANGLE) {
+                this.containerCount--;
+                closed(OperatorSignature.DICTIONARY);
+            } else if (type == PdfStreamLexer.PDF_NAME) {
+                this.containerFlags[top] = DICTIONARY_VALUE;
+            } else {
+                throw violation("unexpected dictionary key");
+            }
+            return;
+        }
+
+        if (type == PdfStreamLexer.LSQUARE || type == PdfStreamLexer.LDOUBLEANGLE) {
+            this.containerFlags[top] = 0;
+            open(type);
+        } else if (isSimpleValue(type)) {
+            this.containerFlags[top] = 0;
+        } else {
+            throw violation("unexpected dictionary value");
+        }
+    }
+
+    private void open(final int type) {
+        requireNestingDepth();
+        if (this.containerCount == this.containers.length) {
+            this.containers = Arrays.copyOf(this.containers, this.containerCount * 2);
+            this.containerFlags = Arrays.copyOf(this.containerFlags, this.containerCount * 2);
+        }
+        this.containers[this.containerCount] = type;
+        this.containerFlags[this.containerCount] = type == PdfStreamLexer.LSQUARE ? ONLY_NUMBERS | ONLY_TEXT : 0;
+        this.containerCount++;
+    }
+
+    // An array or dictionary has been closed, it is an element of its parent, an inline image value or an operand
+    private void closed(final int kind) {
+        if (this.containerCount == 0) {
+            if (this.imageState == IMAGE_VALUE) {
+                this.imageState = IMAGE_KEY_OR_DATA;
+            } else {
+                push(kind);
+            }
+        }
+        // Parent flags have been updated when the container was opened
+    }
+
+    // NUMBER, STRING, PDF_NAME, 'true', 'false' and 'null'
+    private static boolean isSimpleValue(final int type) {
+        return type == PdfStreamLexer.NUMBER || type == PdfStreamLexer.STRING || type == PdfStreamLexer.PDF_NAME
+                || type == ContentStreamScanner.TRUE || type == ContentStreamScanner.FALSE
+                || type == ContentStreamScanner.NULL;
+    }
+
+    private void end() {
+        if (this.containerCount > 0 || this.imageState != NO_IMAGE || this.operandCount > 0 || this.frameCount > 0
+                || (this.pathState != NO_PATH && this.pathState != SINGLE_SEGMENT_PATH_AND_COMPATIBILITY)) {
+            throw violation("unexpected end of content");
+        }
+    }
+
+    // Arrays, dictionaries and marked content sequences count together, as in the lexer
+    private void requireNestingDepth() {
+        if (this.containerCount + this.markedContentDepth >= this.maxNestingDepth) {
+            throw violation("nesting deeper than " + this.maxNestingDepth + " levels");
+        }
+    }
+
+    private boolean inTextObject() {
+        return this.frameCount > 0 && this.frames[this.frameCount - 1] == TEXT_OBJECT;
+    }
+
+    private void push(final int kind) {
+        if (this.operandCount == 0) {
+            this.firstOperandStart = this.scanner.tokenStart();
+            this.firstOperandEnd = this.scanner.tokenEnd();
+        }
+        if (this.operandCount == this.operands.length) {
+            this.operands = Arrays.copyOf(this.operands, this.operandCount * 2);
+        }
+        this.operands[this.operandCount++] = kind;
+    }
+
+    private void pushFrame(final int frame) {
+        if (this.frameCount == this.frames.length) {
+            this.frames = Arrays.copyOf(this.frames, this.frameCount * 2);
+        }
+        this.frames[this.frameCount++] = frame;
+    }
+
+    private boolean inContext(final int context) {
+        switch (context) {
+            case OperatorSignature.OUTSIDE_TEXT_OBJECT:
+            case OperatorSignature.PATH_OBJECT:
+                return ! inTextObject();
+            case OperatorSignature.IN_TEXT_OBJECT:
+                return inTextObject();
+            default:
+                return true;
+        }
+    }
+
+    private boolean operands(final OperatorSignature signature) {
+        if (! signature.accepts(this.operands, this.operandCount)) {
+            return false;
+        }
+        // A single number of the given class
+        return signature.getNumberClass() == 0 || this.validationLevel != ValidationLevel.SEMANTIC
+                || (this.scanner.numberClasses(this.firstOperandStart,
+                this.firstOperandEnd) & signature.getNumberClass()) != 0;
+    }
+
+    private ContentStreamViolation violation(final String message) {
+        int start = this.scanner.tokenStart();
+        int end = Math.max(this.scanner.tokenEnd(), start);
+        // The page buffer is reused, the text of the token is copied for the message
+        byte[] text = Arrays.copyOfRange(this.bytes, start, start + Math.min(end - start, 32));
+        int index = start - this.offset;
+
+        int stream = 0;
+        int streamOffset = index;
+        if (this.streamCount > 1) {
+            stream = this.streamCount - 1;
+            while (this.streamStarts[stream] > index) {
+                stream--;
+            }
+            streamOffset = index - this.streamStarts[stream];
+        }
+        return ContentStreamViolation.ofByteLevel(this.tokenType, index, stream, streamOffset,
+                this.streamCount > 1, () -> message + " at '" + new String(text, StandardCharsets.ISO_8859_1) + "'");
+    }
+}
@@ -0,0 +1,118 @@
+/*
+    Copyright (c) 2023 iText Group NV
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+ */
+package com.itextpdf.pdfcop;
+
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfStream;
+import com.itextpdf.kernel.pdf.filters.FilterHandlers;
+import com.itextpdf.kernel.pdf.filters.FlateDecodeFilter;
+import com.itextpdf.kernel.pdf.filters.IFilterHandler;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Decodes the content streams of a page as {@link PdfStream#getBytes(boolean)} does, within the decoded bytes its
+ * {@link ValidationGuard} has left. FlateDecode, which can inflate a few kilobytes into gigabytes, stops as soon as
+ * its output goes over; the output of the other filters is checked once they are done.
+ */
+final class ContentStreamDecoder {
+
+    private final ValidationGuard guard;
+    private final Map<PdfName, IFilterHandler> filterHandlers = new HashMap<>();
+
+    ContentStreamDecoder(final ValidationGuard guard) {
+        this.guard = guard;
+        for (Map.Entry<PdfName, IFilterHandler> entry : FilterHandlers.getDefaultFilterHandlers().entrySet()) {
+            IFilterHandler filter = entry.getValue();
+            this.filterHandlers.put(entry.getKey(), filter instanceof FlateDecodeFilter ? new BoundedFlateDecode()
+                    : (bytes, filterName, decodeParams, streamDictionary) ->
+                            checked(filter.decode(bytes, filterName, decodeParams, streamDictionary)));
+        }
+    }
+
+    /**
+     * Returns the decoded bytes of the stream, counted by the guard.
+     */
+    byte[] decode(final PdfStream stream) {
+        byte[] bytes = stream.getBytes(false);
+        if (bytes != null && stream.containsKey(PdfName.Filter)) {
+            bytes = PdfReader.decodeBytes(bytes, stream, this.filterHandlers);
+        }
+        this.guard.decoded(bytes == null ? 0 : bytes.length);
+        return bytes;
+    }
+
+    private byte[] checked(final byte[] decoded) {
+        if (decoded != null) {
+            this.guard.checkDecodedBytes(decoded.length);
+        }
+        return decoded;
+    }
+
+    // FlateDecodeFilter, inflating no more than the guard allows
+    private final class BoundedFlateDecode implements IFilterHandler {
+
+        @Override
+        public byte[] decode(final byte[] b, final PdfName filterName, final PdfObject decodeParams,
+                final PdfDictionary streamDictionary) {
+            byte[] inflated = inflate(b, true);
+            if (inflated == null) {
+                inflated = inflate(b, false);
+            }
+            return checked(FlateDecodeFilter.decodePredictor(inflated, decodeParams));
+        }
+
+        // As FlateDecodeFilter.flateDecode: strict inflating fails on corrupt data, the lenient one keeps what could
+        // be inflated up to the corruption, reading byte per byte
+        private byte[] inflate(final byte[] in, final boolean strict) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[strict ? 4092 : 1];
+            try (InflaterInputStream zip = new InflaterInputStream(new ByteArrayInputStream(in))) {
+                int length;
+                while ((length = zip.read(buffer)) >= 0) {
+                    out.write(buffer, 0, length);
+                    ContentStreamDecoder.this.guard.checkDecodedBytes(out.size());
+                }
+            } catch (ValidationInterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                return strict ? null : out.toByteArray();
+            }
+            return out.toByteArray();
+        }
+    }
+}
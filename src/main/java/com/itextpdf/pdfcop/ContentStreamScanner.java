@@ -0,0 +1,377 @@
+/*
+    Copyright (c) 2023 iText Group NV
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+ */
+package com.itextpdf.pdfcop;
+
+import com.itextpdf.antlr.ContentSkipper;
+import com.itextpdf.antlr.InlineImageDictionary;
+import com.itextpdf.antlr.NumberClassifier;
+import com.itextpdf.antlr.PdfStreamLexer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.Vocabulary;
+
+/**
+ * Hand-written tokenizer for content stream bytes. It recognizes the same tokens as {@link PdfStreamLexer}, with
+ * the same longest-match and rule-priority resolution, and reports them with the lexer's token types. Skipped input
+ * (white space, EOLs and comments) never produces a token.
+ * <p>
+ * Tokens are reported as offsets into the bytes, not as objects. The scanner still allocates a
+ * {@link ByteCharStream} view on each {@link #reset} and the text of every token of an inline image dictionary,
+ * which {@link InlineImageDictionary} reads to find the length of the image data.
+ */
+final class ContentStreamScanner {
+
+    static final int ERROR = -2;
+
+    // Implicit tokens of the parser literals
+    static final int TRUE = literalType("true");
+    static final int FALSE = literalType("false");
+    static final int NULL = literalType("null");
+
+    private static final int WHITE_SPACE = 1;
+    private static final int REGULAR = 2;
+    private static final int DIGIT = 4;
+
+    private static final byte[] CLASSES = new byte[256];
+
+    // Operator literals of the lexer indexed by their first byte, longest first
+    private static final byte[][][] OPERATORS = new byte[256][][];
+    private static final int[][] OPERATOR_TYPES = new int[256][];
+
+    static {
+        for (int c : new int[] {' ', '\t', '\r', '\n', 0x00, 0x0C}) {
+            CLASSES[c] |= WHITE_SPACE;
+        }
+        // REGULAR_CHAR of the grammar
+        int[][] regular = {
+                {0x01, 0x08}, {0x0B, 0x0B}, {0x0E, 0x19}, {0x21, 0x24}, {0x26, 0x27}, {0x2A, 0x2E}, {0x30, 0x3B},
+                {0x3D, 0x3D}, {0x3F, 0x5A}, {0x5C, 0x7A}, {0x7C, 0x7C}, {0x7E, 0xFF}
+        };
+        for (int[] range : regular) {
+            for (int c = range[0]; c <= range[1]; c++) {
+                CLASSES[c] |= REGULAR;
+            }
+        }
+        for (int c = '0'; c <= '9'; c++) {
+            CLASSES[c] |= DIGIT;
+        }
+
+        List<List<byte[]>> literals = new ArrayList<>();
+        List<List<Integer>> types = new ArrayList<>();
+        for (int c = 0; c < 256; c++) {
+            literals.add(new ArrayList<>());
+            types.add(new ArrayList<>());
+        }
+        Vocabulary vocabulary = PdfStreamLexer.VOCABULARY;
+        for (int type = 1; type <= vocabulary.getMaxTokenType(); type++) {
+            String literal = literal(vocabulary, type);
+            // Numbers and delimiters are scanned separately
+            if (literal == null || "0123456789[]<>".indexOf(literal.charAt(0)) >= 0) {
+                continue;
+            }
+            byte[] bytes = literal.getBytes(StandardCharsets.ISO_8859_1);
+            List<byte[]> candidates = literals.get(bytes[0] & 0xFF);
+            int at = 0;
+            while (at < candidates.size() && candidates.get(at).length >= bytes.length) {
+                at++;
+            }
+            candidates.add(at, bytes);
+            types.get(bytes[0] & 0xFF).add(at, type);
+        }
+        for (int c = 0; c < 256; c++) {
+            OPERATORS[c] = literals.get(c).toArray(new byte[0][]);
+            OPERATOR_TYPES[c] = types.get(c).stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    private final InlineImageDictionary inlineImage = new InlineImageDictionary();
+
+    private byte[] bytes;
+    private int offset;
+    private int end;
+    // The content as seen by ContentSkipper
+    private ByteCharStream input;
+    private int position;
+    private int tokenStart;
+    private int tokenEnd;
+    private long compatibilitySectionByteCount;
+
+    void reset(final byte[] bytes, final int offset, final int length) {
+        this.bytes = bytes;
+        this.offset = offset;
+        this.position = offset;
+        this.end = offset + length;
+        this.tokenStart = offset;
+        this.tokenEnd = offset;
+        this.inlineImage.end();
+        this.compatibilitySectionByteCount = 0;
+        this.input = ByteCharStream.fromBytes(bytes, offset, length);
+    }
+
+    /**
+     * Index of the first byte of the last token, or of the offending input after {@link #ERROR}.
+     */
+    int tokenStart() {
+        return this.tokenStart;
+    }
+
+    /**
+     * Index following the last byte of the last token.
+     */
+    int tokenEnd() {
+        return this.tokenEnd;
+    }
+
+    /**
+     * Number of bytes in the compatibility sections (BX and EX included) skipped since the last reset.
+     */
+    long compatibilitySectionByteCount() {
+        return this.compatibilitySectionByteCount;
+    }
+
+    /**
+     * Returns the type of the next token, {@link Token#EOF} at the end of the input or {@link #ERROR} when the
+     * input can't be tokenized.
+     */
+    int next() {
+        int type = scan();
+        if (type == PdfStreamLexer.BEGIN_INLINE_IMAGE) {
+            this.inlineImage.begin();
+        } else if (this.inlineImage.isOpen() && type >= 0) {
+            this.inlineImage.token(type, new String(this.bytes, this.tokenStart, this.tokenEnd - this.tokenStart,
+                    StandardCharsets.ISO_8859_1));
+        }
+        return type;
+    }
+
+    private int scan() {
+        final byte[] b = this.bytes;
+        final int end = this.end;
+        int p = this.position;
+
+        while (p < end) {
+            int c = b[p] & 0xFF;
+            if ((CLASSES[c] & WHITE_SPACE) != 0) {
+                p++;
+            } else if (c == '%') {
+                // A comment has to be terminated by an EOL
+                int q = p + 1;
+                while (q < end && b[q] != '\r' && b[q] != '\n') {
+                    q++;
+                }
+                if (q == end) {
+                    return error(p);
+                }
+                p = q;
+            } else {
+                break;
+            }
+        }
+
+        this.tokenStart = p;
+        if (p == end) {
+            this.tokenEnd = p;
+            this.position = p;
+            return Token.EOF;
+        }
+
+        int c = b[p] & 0xFF;
+        switch (c) {
+            case '/': {
+                int q = p + 1;
+                while (q < end && (CLASSES[b[q] & 0xFF] & REGULAR) != 0) {
+                    q++;
+                }
+                return token(q, PdfStreamLexer.PDF_NAME);
+            }
+            case '[':
+                return token(p + 1, PdfStreamLexer.LSQUARE);
+            case ']':
+                return token(p + 1, PdfStreamLexer.RSQUARE);
+            case '<':
+                if (p + 1 < end && b[p + 1] == '<') {
+                    return token(p + 2, PdfStreamLexer.LDOUBLEANGLE);
+                }
+                return skipped(p, 1, PdfStreamLexer.STRING, ContentSkipper.hexString(at(p + 1)));
+            case '>':
+                return p + 1 < end && b[p + 1] == '>' ? token(p + 2, PdfStreamLexer.RDOUBLEANGLE) : error(p);
+            case '(':
+                return skipped(p, 1, PdfStreamLexer.STRING, ContentSkipper.literalString(at(p + 1)));
+            case '+':
+            case '-':
+            case '.':
+            case '0':
+            case '1':
+            case '2':
+            case '3':
+            case '4':
+            case '5':
+            case '6':
+            case '7':
+            case '8':
+            case '9':
+                return number(p);
+            default:
+                return operator(p, c);
+        }
+    }
+
+    private int token(final int tokenEnd, final int type) {
+        this.tokenEnd = tokenEnd;
+        this.position = tokenEnd;
+        return type;
+    }
+
+    private int error(final int at) {
+        this.tokenStart = at;
+        this.tokenEnd = at;
+        this.position = this.end;
+        return ERROR;
+    }
+
+    // Token made of the first prefixLength bytes and the length bytes skipped after them, an error at p if the length
+    // is negative
+    private int skipped(final int p, final int prefixLength, final int type, final int length) {
+        return length < 0 ? error(p) : token(p + prefixLength + length, type);
+    }
+
+    // The skipper input positioned at index p
+    private ByteCharStream at(final int p) {
+        this.input.seek(p - this.offset);
+        return this.input;
+    }
+
+    private int number(final int p) {
+        int numberEnd = numberEnd(p);
+        return numberEnd < 0 ? error(p) : token(numberEnd, PdfStreamLexer.NUMBER);
+    }
+
+    // ('-' | '+')? ( DIGIT+ | DIGIT+ '.' DIGIT* | '.' DIGIT+ ), longest match
+    private int numberEnd(final int p) {
+        final byte[] b = this.bytes;
+        int q = p;
+        if (q < this.end && (b[q] == '+' || b[q] == '-')) {
+            q++;
+        }
+        int digitsStart = q;
+        while (q < this.end && (CLASSES[b[q] & 0xFF] & DIGIT) != 0) {
+            q++;
+        }
+        boolean integerDigits = q > digitsStart;
+        if (q < this.end && b[q] == '.') {
+            int fractionStart = ++q;
+            while (q < this.end && (CLASSES[b[q] & 0xFF] & DIGIT) != 0) {
+                q++;
+            }
+            if (integerDigits || q > fractionStart) {
+                return q;
+            }
+            return -1;
+        }
+        return integerDigits ? q : -1;
+    }
+
+    private int operator(final int p, final int c) {
+        final byte[] b = this.bytes;
+        if (c == 'B' && p + 1 < this.end && b[p + 1] == 'X') {
+            // Same skipping as the COMPATIBILITY action of the lexer
+            int type = skipped(p, 2, PdfStreamLexer.COMPATIBILITY, ContentSkipper.compatibilitySection(at(p + 2)));
+            if (type != ERROR) {
+                this.compatibilitySectionByteCount += this.tokenEnd - p;
+            }
+            return type;
+        }
+
+        byte[][] candidates = OPERATORS[c];
+        for (int i = 0; i < candidates.length; i++) {
+            byte[] literal = candidates[i];
+            if (matches(literal, p)) {
+                int type = OPERATOR_TYPES[c][i];
+                if (type == PdfStreamLexer.BEGIN_INLINE_IMAGE_DATA) {
+                    int dataEnd = inlineImageDataEnd(p + 2);
+                    if (dataEnd >= 0) {
+                        return token(dataEnd, PdfStreamLexer.INLINE_DATA);
+                    }
+                }
+                return token(p + literal.length, type);
+            }
+        }
+        return error(p);
+    }
+
+    // Same skipping as the INLINE_DATA action of the lexer
+    private int inlineImageDataEnd(final int dataStart) {
+        long dataLength = this.inlineImage.isOpen() ? this.inlineImage.dataLength() : -1;
+        this.inlineImage.end();
+        int length = ContentSkipper.inlineImageData(at(dataStart), dataLength);
+        return length < 0 ? -1 : dataStart + length;
+    }
+
+    private boolean matches(final byte[] literal, final int p) {
+        if (p + literal.length > this.end) {
+            return false;
+        }
+        for (int i = 1; i < literal.length; i++) {
+            if (this.bytes[p + i] != literal[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the {@link NumberClassifier} classes of the NUMBER token from {@code start} to {@code end} (exclusive).
+     */
+    int numberClasses(final int start, final int end) {
+        return NumberClassifier.classify(this.input, start - this.offset, end - this.offset - 1);
+    }
+
+    private static int literalType(final String literal) {
+        Vocabulary vocabulary = PdfStreamLexer.VOCABULARY;
+        for (int type = 1; type <= vocabulary.getMaxTokenType(); type++) {
+            if (literal.equals(literal(vocabulary, type))) {
+                return type;
+            }
+        }
+        throw new IllegalStateException("No token for '" + literal + "' in the grammar");
+    }
+
+    private static String literal(final Vocabulary vocabulary, final int type) {
+        String literalName = vocabulary.getLiteralName(type);
+        if (literalName == null) {
+            return null;
+        }
+        return literalName.substring(1, literalName.length() - 1).replace("\\'", "'").replace("\\\\", "\\");
+    }
+}
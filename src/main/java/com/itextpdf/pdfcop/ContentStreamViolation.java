@@ -0,0 +1,311 @@
+/*
+    Copyright (c) 2023 iText Group NV
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+ */
+package com.itextpdf.pdfcop;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.LexerNoViableAltException;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.RuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.misc.IntervalSet;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+
+/**
+ * The first violation found in a content stream. Next to the message, it tells what went wrong as data: the
+ * offending token, where it is and, for the {@link ValidationEngine#ANTLR} engine, which tokens were expected
+ * instead and in which rules.
+ * <p>
+ * Violations are expected in batch runs and are cheap to throw: they have no stack trace and their message is
+ * only formatted when it is asked for.
+ */
+public class ContentStreamViolation extends ParseCancellationException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int tokenType;
+    // Index of the offending token in its token stream, -1 if unknown
+    private final int tokenIndex;
+    private final int offset;
+    private final int line;
+    private final int charPositionInLine;
+    private final int streamIndex;
+    private final int streamOffset;
+    // Whether the content was made of several streams, the message only locates the violation in that case
+    private final boolean multiStream;
+    private final transient Supplier<IntervalSet> expectedTokens;
+    // Indexes of the parser rules being matched, innermost first, null if the violation isn't a parser's
+    private final int[] ruleStack;
+    private final String[] ruleNames;
+    private final transient Supplier<String> description;
+    // The description once formatted, which is what is left of it after serialization
+    private String formattedDescription;
+    private int pageNumber;
+    private int objectNumber = -1;
+    private int generationNumber = -1;
+    private String message;
+
+    private ContentStreamViolation(final int tokenType, final int tokenIndex, final int offset, final int line,
+            final int charPositionInLine, final int streamIndex, final int streamOffset, final boolean multiStream,
+            final Supplier<IntervalSet> expectedTokens, final int[] ruleStack, final String[] ruleNames,
+            final Supplier<String> description) {
+        this.tokenType = tokenType;
+        this.tokenIndex = tokenIndex;
+        this.offset = offset;
+        this.line = line;
+        this.charPositionInLine = charPositionInLine;
+        this.streamIndex = streamIndex;
+        this.streamOffset = streamOffset;
+        this.multiStream = multiStream;
+        this.expectedTokens = expectedTokens;
+        this.ruleStack = ruleStack;
+        this.ruleNames = ruleNames;
+        this.description = description;
+    }
+
+    /**
+     * A violation reported by a lexer or a parser of the PdfStream grammar. {@code offendingSymbol} is a token or
+     * {@code null} for lexer errors.
+     */
+    static ContentStreamViolation of(final Recognizer<?, ?> recognizer, final Object offendingSymbol,
+            final int line, final int charPositionInLine, final Supplier<String> description,
+            final RecognitionException e, final ExpectedTokens expectedTokens) {
+        IntStream input = null;
+        int index = -1;
+        int tokenType = Token.INVALID_TYPE;
+        int tokenIndex = -1;
+        if (offendingSymbol instanceof Token) {
+            Token token = (Token) offendingSymbol;
+            input = token.getInputStream();
+            index = token.getStartIndex();
+            tokenType = token.getType();
+            tokenIndex = token.getTokenIndex();
+        } else if (e instanceof LexerNoViableAltException) {
+            input = e.getInputStream();
+            index = ((LexerNoViableAltException) e).getStartIndex();
+        }
+
+        int streamIndex = index < 0 ? -1 : 0;
+        int streamOffset = index;
+        boolean multiStream = input instanceof MultiStreamCharStream && index >= 0;
+        if (multiStream) {
+            MultiStreamCharStream streams = (MultiStreamCharStream) input;
+            streamIndex = streams.getStreamIndex(index);
+            streamOffset = streams.getStreamOffset(index);
+        }
+
+        int[] ruleStack = null;
+        String[] ruleNames = null;
+        if (recognizer instanceof Parser) {
+            ruleStack = ruleStack(((Parser) recognizer).getContext());
+            ruleNames = recognizer.getRuleNames();
+        }
+        return new ContentStreamViolation(tokenType, tokenIndex, index, line, charPositionInLine, streamIndex,
+                streamOffset, multiStream, expectedTokens, ruleStack, ruleNames, description);
+    }
+
+    private static int[] ruleStack(final RuleContext context) {
+        int depth = 0;
+        for (RuleContext rule = context; rule != null; rule = rule.parent) {
+            depth++;
+        }
+        int[] ruleStack = new int[depth];
+        RuleContext rule = context;
+        for (int i = 0; i < depth; i++, rule = rule.parent) {
+            ruleStack[i] = rule.getRuleIndex();
+        }
+        return ruleStack;
+    }
+
+    /**
+     * A violation found by the {@link ValidationEngine#BYTE_LEVEL} engine, which only knows offsets.
+     */
+    static ContentStreamViolation ofByteLevel(final int tokenType, final int offset, final int streamIndex,
+            final int streamOffset, final boolean multiStream, final Supplier<String> description) {
+        return new ContentStreamViolation(tokenType, -1, offset, -1, -1, streamIndex, streamOffset, multiStream,
+                null, null, null, description);
+    }
+
+    /**
+     * Type of the offending token, {@link Token#INVALID_TYPE} when no token could be recognized.
+     */
+    public int getTokenType() {
+        return this.tokenType;
+    }
+
+    /**
+     * Offset of the offending token in the content, content streams of a page counting as one, -1 if unknown.
+     */
+    public int getOffset() {
+        return this.offset;
+    }
+
+    /**
+     * Line of the offending token, -1 for the {@link ValidationEngine#BYTE_LEVEL} engine.
+     */
+    public int getLine() {
+        return this.line;
+    }
+
+    public int getCharPositionInLine() {
+        return this.charPositionInLine;
+    }
+
+    /**
+     * Index of the content stream of the page holding the offending token, -1 if unknown.
+     */
+    public int getStreamIndex() {
+        return this.streamIndex;
+    }
+
+    /**
+     * Offset of the offending token in the decoded bytes of its content stream, -1 if unknown.
+     */
+    public int getStreamOffset() {
+        return this.streamOffset;
+    }
+
+    /**
+     * Tokens the parser expected instead of the offending token, empty when they aren't known.
+     */
+    public IntervalSet getExpectedTokens() {
+        return this.expectedTokens != null ? this.expectedTokens.get() : IntervalSet.EMPTY_SET;
+    }
+
+    /**
+     * Names of the parser rules being matched, innermost first, empty when the violation isn't a parser's.
+     */
+    public List<String> getRuleStack() {
+        if (this.ruleStack == null) {
+            return Collections.emptyList();
+        }
+        List<String> rules = new ArrayList<>(this.ruleStack.length);
+        for (int ruleIndex : this.ruleStack) {
+            rules.add(this.ruleNames[ruleIndex]);
+        }
+        return rules;
+    }
+
+    int getTokenIndex() {
+        return this.tokenIndex;
+    }
+
+    boolean isInRule(final int ruleIndex) {
+        if (this.ruleStack != null) {
+            for (int index : this.ruleStack) {
+                if (index == ruleIndex) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Number of the page, starting at 1, or 0 when the content wasn't checked as a page of a document.
+     */
+    public int getPageNumber() {
+        return this.pageNumber;
+    }
+
+    /**
+     * Object number of the content stream holding the offending token, -1 when it isn't known or the stream is a
+     * direct object.
+     */
+    public int getObjectNumber() {
+        return this.objectNumber;
+    }
+
+    public int getGenerationNumber() {
+        return this.generationNumber;
+    }
+
+    void setPageNumber(final int pageNumber) {
+        this.pageNumber = pageNumber;
+        this.message = null;
+    }
+
+    void setStreamObject(final int objectNumber, final int generationNumber) {
+        this.objectNumber = objectNumber;
+        this.generationNumber = generationNumber;
+        this.message = null;
+    }
+
+    @Override
+    public String getMessage() {
+        if (this.message == null) {
+            StringBuilder builder = new StringBuilder();
+            if (this.line >= 0) {
+                builder.append("line ").append(this.line).append(':').append(this.charPositionInLine).append(' ');
+            } else {
+                builder.append("offset ").append(this.offset).append(' ');
+            }
+            builder.append(getDescription());
+            if (this.multiStream) {
+                builder.append(" (content stream ").append(this.streamIndex).append(", offset ")
+                        .append(this.streamOffset).append(')');
+            }
+            if (this.objectNumber >= 0) {
+                builder.append(" in object ").append(this.objectNumber).append(' ').append(this.generationNumber)
+                        .append(" R");
+            }
+            if (this.pageNumber > 0) {
+                builder.append(" on page ").append(this.pageNumber);
+            }
+            this.message = builder.toString();
+        }
+        return this.message;
+    }
+
+    private String getDescription() {
+        if (this.formattedDescription == null) {
+            this.formattedDescription = this.description.get();
+        }
+        return this.formattedDescription;
+    }
+
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        getDescription();
+        out.defaultWriteObject();
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+    Copyright (c) 2023 iText Group NV
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+ */
+package com.itextpdf.pdfcop;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Verdict of {@link PdfCop#checkDocument(com.itextpdf.kernel.pdf.PdfDocument, int)} or
+ * {@link PdfCop#explainDocument(com.itextpdf.kernel.pdf.PdfDocument)}, page by page. Pages are checked in order,
+ * the check may stop early once a limit is reached.
+ */
+public final class DocumentValidationResult {
+
+    private final int numberOfPages;
+    private final int checkedPageCount;
+    private final BitSet failingPages;
+    private final List<ContentStreamViolation> violations;
+    private final InconclusiveReason inconclusiveReason;
+
+    DocumentValidationResult(final int numberOfPages, final int checkedPageCount, final BitSet failingPages,
+            final List<ContentStreamViolation> violations, final InconclusiveReason inconclusiveReason) {
+        this.numberOfPages = numberOfPages;
+        this.checkedPageCount = checkedPageCount;
+        this.failingPages = failingPages;
+        this.violations = Collections.unmodifiableList(violations);
+        this.inconclusiveReason = inconclusiveReason;
+    }
+
+    /**
+     * {@link ValidationVerdict#INCONCLUSIVE} when the check went over a budget or was cancelled before finding a
+     * failing page.
+     */
+    public ValidationVerdict getVerdict() {
+        if (! this.failingPages.isEmpty()) {
+            return ValidationVerdict.BREAKS_THE_RULES;
+        }
+        return this.inconclusiveReason == null ? ValidationVerdict.FOLLOWS_THE_RULES : ValidationVerdict.INCONCLUSIVE;
+    }
+
+    /**
+     * The budget the check went over, or {@link InconclusiveReason#CANCELLED}. {@code null} when the check wasn't
+     * stopped this way.
+     */
+    public InconclusiveReason getInconclusiveReason() {
+        return this.inconclusiveReason;
+    }
+
+    public int getNumberOfPages() {
+        return this.numberOfPages;
+    }
+
+    /**
+     * Number of pages checked, pages 1 to this number. Less than the number of pages when the check stopped early.
+     */
+    public int getCheckedPageCount() {
+        return this.checkedPageCount;
+    }
+
+    public boolean isComplete() {
+        return this.checkedPageCount == this.numberOfPages;
+    }
+
+    /**
+     * Whether all pages were checked and follow the rules.
+     */
+    public boolean isFollowingTheRules() {
+        return isComplete() && this.failingPages.isEmpty();
+    }
+
+    /**
+     * Pages breaking the rules, the bit of a page being its page number (bit 0 is never set).
+     */
+    public BitSet getFailingPages() {
+        return (BitSet) this.failingPages.clone();
+    }
+
+    public int getFailingPageCount() {
+        return this.failingPages.cardinality();
+    }
+
+    /**
+     * Returns whether a checked page follows the rules.
+     */
+    public boolean isPageFollowingTheRules(final int pageNumber) {
+        if (pageNumber < 1 || pageNumber > this.checkedPageCount) {
+            throw new IllegalArgumentException("Page " + pageNumber + " wasn't checked");
+        }
+        return ! this.failingPages.get(pageNumber);
+    }
+
+    /**
+     * Violations of the failing pages, in page order: the first one of each page for
+     * {@link PdfCop#checkDocument(com.itextpdf.kernel.pdf.PdfDocument, int)}, all of them up to the limits for
+     * {@link PdfCop#explainDocument(com.itextpdf.kernel.pdf.PdfDocument)}.
+     */
+    public List<ContentStreamViolation> getViolations() {
+        return this.violations;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+    Copyright (c) 2023 iText Group NV
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+ */
+package com.itextpdf.pdfcop;
+
+import java.util.function.Supplier;
+
+import org.antlr.v4.runtime.RuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.atn.ATN;
+import org.antlr.v4.runtime.atn.RuleTransition;
+import org.antlr.v4.runtime.misc.IntervalSet;
+
+/**
+ * The tokens a parser expected where it found a violation, as {@link ATN#getExpectedTokens(int, RuleContext)}
+ * computes them, but only when they are asked for. The parser state and the states invoking the rules being matched
+ * are copied when the violation is found, so that the rule contexts, and the tokens they hold, aren't kept.
+ */
+final class ExpectedTokens implements Supplier<IntervalSet> {
+
+    private final ATN atn;
+    private final int stateNumber;
+    private final int[] invokingStates;
+    private IntervalSet tokens;
+
+    ExpectedTokens(final ATN atn, final int stateNumber, final RuleContext context) {
+        this.atn = atn;
+        this.stateNumber = stateNumber;
+        int depth = 0;
+        for (RuleContext rule = context; rule != null && rule.invokingState >= 0; rule = rule.parent) {
+            depth++;
+        }
+        this.invokingStates = new int[depth];
+        RuleContext rule = context;
+        for (int i = 0; i < depth; i++, rule = rule.parent) {
+            this.invokingStates[i] = rule.invokingState;
+        }
+    }
+
+    @Override
+    public IntervalSet get() {
+        if (this.tokens == null) {
+            this.tokens = this.stateNumber < 0 ? IntervalSet.EMPTY_SET : compute();
+        }
+        return this.tokens;
+    }
+
+    private IntervalSet compute() {
+        IntervalSet following = this.atn.nextTokens(this.atn.states.get(this.stateNumber));
+        if (! following.contains(Token.EPSILON)) {
+            return following;
+        }
+        IntervalSet expected = new IntervalSet();
+        expected.addAll(following);
+        expected.remove(Token.EPSILON);
+        for (int i = 0; i < this.invokingStates.length && following.contains(Token.EPSILON); i++) {
+            RuleTransition invocation = (RuleTransition) this.atn.states.get(this.invokingStates[i]).transition(0);
+            following = this.atn.nextTokens(invocation.followState);
+            expected.addAll(following);
+            expected.remove(Token.EPSILON);
+        }
+        if (following.contains(Token.EPSILON)) {
+            expected.add(Token.EOF);
+        }
+        return expected;
+    }
+}
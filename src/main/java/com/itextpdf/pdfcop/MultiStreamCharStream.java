@@ -0,0 +1,214 @@
+/*
+    Copyright (c) 2023 iText Group NV
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+ */
+package com.itextpdf.pdfcop;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.misc.Interval;
+
+/**
+ * An 8-bit {@link CharStream} over all content streams of a page, without concatenating them.
+ * <p>
+ * A page's content streams are treated as one stream with the boundaries acting as white space (see subclause
+ * 7.8.2 in ISO 32000-2:2020). A virtual line feed is therefore seen between two consecutive streams; it also
+ * terminates a comment left open at the end of a stream. Every global index can be mapped back onto the content
+ * stream it belongs to and the byte offset within that stream.
+ */
+public final class MultiStreamCharStream implements CharStream {
+
+    private static final int BOUNDARY = '\n';
+
+    private final byte[][] streams;
+    // Global index of the first byte of each stream. Every stream but the last is followed by the virtual boundary.
+    private final int[] starts;
+    private final int size;
+    private final String name;
+
+    private int position;
+    // Stream the current position belongs to
+    private int current;
+
+    private MultiStreamCharStream(final byte[][] streams, final String name) {
+        this.streams = streams;
+        this.starts = new int[streams.length];
+        this.name = name;
+
+        int start = 0;
+        for (int i = 0; i < streams.length; i++) {
+            this.starts[i] = start;
+            start += streams[i].length + 1;
+        }
+        this.size = streams.length == 0 ? 0 : start - 1;
+    }
+
+    public static MultiStreamCharStream fromStreams(final List<byte[]> streams) {
+        return new MultiStreamCharStream(streams.toArray(new byte[0][]), IntStream.UNKNOWN_SOURCE_NAME);
+    }
+
+    public int getStreamCount() {
+        return this.streams.length;
+    }
+
+    /**
+     * Returns the index of the content stream the global index belongs to. A boundary belongs to the stream it
+     * follows.
+     */
+    public int getStreamIndex(final int index) {
+        if (this.streams.length == 0) {
+            return -1;
+        }
+
+        return locate(Math.min(Math.max(index, 0), this.size));
+    }
+
+    /**
+     * Returns the byte offset of the global index within its content stream. A boundary maps onto the length of
+     * the stream it follows.
+     */
+    public int getStreamOffset(final int index) {
+        if (this.streams.length == 0) {
+            return -1;
+        }
+
+        int clamped = Math.min(Math.max(index, 0), this.size);
+        return clamped - this.starts[locate(clamped)];
+    }
+
+    @Override
+    public void consume() {
+        if (this.position >= this.size) {
+            throw new IllegalStateException("cannot consume EOF");
+        }
+
+        this.position++;
+        while (this.current < this.streams.length - 1 && this.position >= this.starts[this.current + 1]) {
+            this.current++;
+        }
+    }
+
+    @Override
+    public int LA(final int i) {
+        int index;
+        if (i > 0) {
+            index = this.position + i - 1;
+            if (index >= this.size) {
+                return IntStream.EOF;
+            }
+        } else if (i < 0) {
+            index = this.position + i;
+            if (index < 0) {
+                return IntStream.EOF;
+            }
+        } else {
+            // LA(0) is undefined
+            return 0;
+        }
+
+        int stream = this.current;
+        int offset = index - this.starts[stream];
+        if (offset < 0 || offset > this.streams[stream].length) {
+            stream = locate(index);
+            offset = index - this.starts[stream];
+        }
+
+        byte[] bytes = this.streams[stream];
+        return offset == bytes.length ? BOUNDARY : bytes[offset] & 0xFF;
+    }
+
+    @Override
+    public int mark() {
+        return -1;
+    }
+
+    @Override
+    public void release(final int marker) {
+    }
+
+    @Override
+    public int index() {
+        return this.position;
+    }
+
+    @Override
+    public void seek(final int index) {
+        this.position = Math.min(Math.max(index, 0), this.size);
+        if (this.streams.length > 0) {
+            this.current = locate(this.position);
+        }
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public String getSourceName() {
+        return this.name;
+    }
+
+    @Override
+    public String getText(final Interval interval) {
+        int start = Math.max(interval.a, 0);
+        int stop = Math.min(interval.b, this.size - 1);
+        if (stop < start) {
+            return "";
+        }
+
+        char[] text = new char[stop - start + 1];
+        int stream = locate(start);
+        int offset = start - this.starts[stream];
+        for (int i = 0; i < text.length; i++) {
+            byte[] bytes = this.streams[stream];
+            if (offset < bytes.length) {
+                text[i] = (char) (bytes[offset] & 0xFF);
+                offset++;
+            } else {
+                text[i] = (char) BOUNDARY;
+                stream++;
+                offset = 0;
+            }
+        }
+        return new String(text);
+    }
+
+    @Override
+    public String toString() {
+        return getText(Interval.of(0, this.size - 1));
+    }
+
+    private int locate(final int index) {
+        int found = Arrays.binarySearch(this.starts, index);
+        return found >= 0 ? found : -found - 2;
+    }
+}
@@ -0,0 +1,274 @@
+/*
+    Copyright (c) 2023 iText Group NV
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+ */
+package com.itextpdf.pdfcop;
+
+import com.itextpdf.antlr.NumberClassifier;
+import com.itextpdf.antlr.PdfStreamLexer;
+
+/**
+ * What an operator of the PdfStream grammar accepts: the operands before it, where it may appear and how it changes
+ * the state of the content. Signatures are immutable and held in a table indexed by token type, looking one up
+ * costs the same for every operator, see {@link #of(int)}.
+ */
+final class OperatorSignature {
+
+    // Operand kinds
+    static final int NUMBER = 1;
+    static final int NAME = 2;
+    static final int STRING = 3;
+    static final int DICTIONARY = 4;
+    // [ NUMBER* ]
+    static final int NUMBER_ARRAY = 5;
+    // [ (STRING | NUMBER)* ]
+    static final int TEXT_ARRAY = 6;
+    static final int ARRAY = 7;
+    // One or more numbers, only as the first kind of a pattern
+    static final int NUMBERS = 8;
+
+    // Contexts
+    static final int ANYWHERE = 0;
+    static final int OUTSIDE_TEXT_OBJECT = 1;
+    static final int IN_TEXT_OBJECT = 2;
+    // Path construction, clipping and painting, in path objects which only appear outside text objects
+    static final int PATH_OBJECT = 3;
+
+    // Transitions
+    static final int NONE = 0;
+    static final int BEGIN_TEXT_OBJECT = 1;
+    static final int END_TEXT_OBJECT = 2;
+    static final int BEGIN_MARKED_CONTENT = 3;
+    static final int END_MARKED_CONTENT = 4;
+    static final int BEGIN_INLINE_IMAGE = 5;
+    // m and re, which can make a path object on their own
+    static final int BEGIN_SUBPATH = 6;
+    static final int EXTEND_PATH = 7;
+    static final int CLIP_PATH = 8;
+    static final int PAINT_PATH = 9;
+
+    private static final int[] NO_OPERANDS = {};
+    private static final OperatorSignature[] SIGNATURES =
+            new OperatorSignature[PdfStreamLexer.VOCABULARY.getMaxTokenType() + 1];
+
+    static {
+        // General graphics state
+        register(PdfStreamLexer.LINE_WIDTH, ANYWHERE, NONE, NumberClassifier.NON_NEGATIVE, new int[] { NUMBER });
+        register(PdfStreamLexer.LINE_CAP, ANYWHERE, NONE, NumberClassifier.LINE_STYLE, new int[] { NUMBER });
+        register(PdfStreamLexer.LINE_JOIN, ANYWHERE, NONE, NumberClassifier.LINE_STYLE, new int[] { NUMBER });
+        register(PdfStreamLexer.MITER_LIMIT, ANYWHERE, NONE, NumberClassifier.NON_NEGATIVE, new int[] { NUMBER });
+        register(PdfStreamLexer.DASH_PATTERN, ANYWHERE, NONE, 0, new int[] { NUMBER_ARRAY, NUMBER });
+        register(PdfStreamLexer.FLATNESS_TOLERANCE, ANYWHERE, NONE, NumberClassifier.NON_NEGATIVE,
+                new int[] { NUMBER });
+        register(PdfStreamLexer.GRAPHICS_STATE, ANYWHERE, NONE, 0, new int[] { NAME });
+        register(PdfStreamLexer.COLOUR_RENDERING_INTENT, ANYWHERE, NONE, 0, new int[] { NAME });
+        register(PdfStreamLexer.SAVE, ANYWHERE, NONE, 0, NO_OPERANDS);
+        register(PdfStreamLexer.RESTORE, ANYWHERE, NONE, 0, NO_OPERANDS);
+        // Special graphics state
+        register(PdfStreamLexer.CURRENT_TRANSFORMATION_MATRIX, OUTSIDE_TEXT_OBJECT, NONE, 0,
+                new int[] { NUMBER, NUMBER, NUMBER, NUMBER, NUMBER, NUMBER });
+        // Path construction
+        register(PdfStreamLexer.MOVE_TO, PATH_OBJECT, BEGIN_SUBPATH, 0, new int[] { NUMBER, NUMBER });
+        register(PdfStreamLexer.RECTANGLE, PATH_OBJECT, BEGIN_SUBPATH, 0, new int[] { NUMBER, NUMBER, NUMBER, NUMBER });
+        register(PdfStreamLexer.LINE_TO, PATH_OBJECT, EXTEND_PATH, 0, new int[] { NUMBER, NUMBER });
+        register(PdfStreamLexer.BEZIER_CURVE, PATH_OBJECT, EXTEND_PATH, 0,
+                new int[] { NUMBER, NUMBER, NUMBER, NUMBER, NUMBER, NUMBER });
+        register(PdfStreamLexer.BEZIER_CURVE_2, PATH_OBJECT, EXTEND_PATH, 0,
+                new int[] { NUMBER, NUMBER, NUMBER, NUMBER });
+        register(PdfStreamLexer.BEZIER_CURVE_3, PATH_OBJECT, EXTEND_PATH, 0,
+                new int[] { NUMBER, NUMBER, NUMBER, NUMBER });
+        register(PdfStreamLexer.CLOSE_BY_LINE_TO_START, PATH_OBJECT, EXTEND_PATH, 0, NO_OPERANDS);
+        // Clipping and painting
+        register(PdfStreamLexer.CLIP_PATH_NON_ZERO, PATH_OBJECT, CLIP_PATH, 0, NO_OPERANDS);
+        register(PdfStreamLexer.CLIP_PATH_EVEN_ODD, PATH_OBJECT, CLIP_PATH, 0, NO_OPERANDS);
+        register(PdfStreamLexer.STROKE_PATH, PATH_OBJECT, PAINT_PATH, 0, NO_OPERANDS);
+        register(PdfStreamLexer.CLOSE_AND_STROKE_PATH, PATH_OBJECT, PAINT_PATH, 0, NO_OPERANDS);
+        register(PdfStreamLexer.FILL_PATH_NON_ZERO, PATH_OBJECT, PAINT_PATH, 0, NO_OPERANDS);
+        register(PdfStreamLexer.FILL_PATH_NON_ZERO_2, PATH_OBJECT, PAINT_PATH, 0, NO_OPERANDS);
+        register(PdfStreamLexer.FILL_PATH_EVEN_ODD, PATH_OBJECT, PAINT_PATH, 0, NO_OPERANDS);
+        register(PdfStreamLexer.FILL_STROKE_PATH_NON_ZERO, PATH_OBJECT, PAINT_PATH, 0, NO_OPERANDS);
+        register(PdfStreamLexer.FILL_STROKE_PATH_EVEN_ODD, PATH_OBJECT, PAINT_PATH, 0, NO_OPERANDS);
+        register(PdfStreamLexer.CLOSE_FILL_STROKE_PATH_NON_ZERO, PATH_OBJECT, PAINT_PATH, 0, NO_OPERANDS);
+        register(PdfStreamLexer.CLOSE_FILL_STROKE_PATH_ODD_EVEN, PATH_OBJECT, PAINT_PATH, 0, NO_OPERANDS);
+        register(PdfStreamLexer.END_PATH_NO_STROKE_OR_FILL, PATH_OBJECT, PAINT_PATH, 0, NO_OPERANDS);
+        // Colour
+        register(PdfStreamLexer.STROKE_COLOUR_SPACE, ANYWHERE, NONE, 0, new int[] { NAME });
+        register(PdfStreamLexer.NON_STROKE_COLOUR_SPACE, ANYWHERE, NONE, 0, new int[] { NAME });
+        register(PdfStreamLexer.STROKE_COLOUR_DEVICE, ANYWHERE, NONE, 0, new int[] { NUMBERS });
+        register(PdfStreamLexer.NON_STROKE_COLOUR_DEVICE, ANYWHERE, NONE, 0, new int[] { NUMBERS });
+        register(PdfStreamLexer.STROKE_COLOUR_DEVICE_EXTRA, ANYWHERE, NONE, 0, new int[] { NUMBERS },
+                new int[] { NUMBERS, NAME });
+        register(PdfStreamLexer.NON_STROKE_COLOUR_DEVICE_EXTRA, ANYWHERE, NONE, 0, new int[] { NUMBERS },
+                new int[] { NUMBERS, NAME });
+        register(PdfStreamLexer.STROKE_COLOUR_DEVICE_GRAY, ANYWHERE, NONE, 0, new int[] { NUMBER });
+        register(PdfStreamLexer.NON_STROKE_COLOUR_DEVICE_GRAY, ANYWHERE, NONE, 0, new int[] { NUMBER });
+        register(PdfStreamLexer.STROKE_COLOUR_DEVICE_RGB, ANYWHERE, NONE, 0, new int[] { NUMBER, NUMBER, NUMBER });
+        register(PdfStreamLexer.NON_STROKE_COLOUR_DEVICE_RGB, ANYWHERE, NONE, 0,
+                new int[] { NUMBER, NUMBER, NUMBER });
+        register(PdfStreamLexer.STROKE_COLOUR_DEVICE_CMYK, ANYWHERE, NONE, 0,
+                new int[] { NUMBER, NUMBER, NUMBER, NUMBER });
+        register(PdfStreamLexer.NON_STROKE_COLOUR_DEVICE_CMYK, ANYWHERE, NONE, 0,
+                new int[] { NUMBER, NUMBER, NUMBER, NUMBER });
+        // Text state
+        register(PdfStreamLexer.TEXT_CHAR_SPACE, ANYWHERE, NONE, 0, new int[] { NUMBER });
+        register(PdfStreamLexer.TEXT_WORD_SPACE, ANYWHERE, NONE, 0, new int[] { NUMBER });
+        register(PdfStreamLexer.TEXT_SCALE, ANYWHERE, NONE, NumberClassifier.NON_NEGATIVE, new int[] { NUMBER });
+        register(PdfStreamLexer.TEXT_LEADING, ANYWHERE, NONE, 0, new int[] { NUMBER });
+        register(PdfStreamLexer.TEXT_FONT_AND_SIZE, ANYWHERE, NONE, 0, new int[] { NAME, NUMBER });
+        register(PdfStreamLexer.TEXT_RENDER_MODE, ANYWHERE, NONE, NumberClassifier.SMALL_INTEGER,
+                new int[] { NUMBER });
+        register(PdfStreamLexer.TEXT_RISE, ANYWHERE, NONE, 0, new int[] { NUMBER });
+        // Text objects, positioning and showing
+        register(PdfStreamLexer.BEGIN_TEXT, OUTSIDE_TEXT_OBJECT, BEGIN_TEXT_OBJECT, 0, NO_OPERANDS);
+        register(PdfStreamLexer.END_TEXT, IN_TEXT_OBJECT, END_TEXT_OBJECT, 0, NO_OPERANDS);
+        register(PdfStreamLexer.MOVE_TO_START_NEXT_LINE, IN_TEXT_OBJECT, NONE, 0, new int[] { NUMBER, NUMBER });
+        register(PdfStreamLexer.MOVE_TO_START_NEXT_LINE_SET_LEADING, IN_TEXT_OBJECT, NONE, 0,
+                new int[] { NUMBER, NUMBER });
+        register(PdfStreamLexer.TEXT_MATRIX, IN_TEXT_OBJECT, NONE, 0,
+                new int[] { NUMBER, NUMBER, NUMBER, NUMBER, NUMBER, NUMBER });
+        register(PdfStreamLexer.MOVE_TO_START_NEXT_LINE_CURRENT_LEADING, IN_TEXT_OBJECT, NONE, 0, NO_OPERANDS);
+        register(PdfStreamLexer.TEXT_SHOW, IN_TEXT_OBJECT, NONE, 0, new int[] { STRING });
+        register(PdfStreamLexer.TEXT_NEW_LINE_AND_SHOW, IN_TEXT_OBJECT, NONE, 0, new int[] { STRING });
+        register(PdfStreamLexer.TEXT_NEW_LINE_AND_SHOW_WITH_SPACING, IN_TEXT_OBJECT, NONE, 0,
+                new int[] { NUMBER, NUMBER, STRING });
+        register(PdfStreamLexer.TEXT_SHOW_GLYPH_POSITIONING, IN_TEXT_OBJECT, NONE, 0, new int[] { TEXT_ARRAY },
+                new int[] { NUMBER_ARRAY });
+        // Shading and XObjects
+        register(PdfStreamLexer.SHADING_PATTERN, OUTSIDE_TEXT_OBJECT, NONE, 0, new int[] { NAME });
+        register(PdfStreamLexer.XOBJECT, OUTSIDE_TEXT_OBJECT, NONE, 0, new int[] { NAME });
+        // Inline images
+        register(PdfStreamLexer.BEGIN_INLINE_IMAGE, OUTSIDE_TEXT_OBJECT, BEGIN_INLINE_IMAGE, 0, NO_OPERANDS);
+        // Marked content
+        register(PdfStreamLexer.MARKED_CONTENT_POINT, ANYWHERE, NONE, 0, new int[] { NAME });
+        register(PdfStreamLexer.MARKED_CONTENT_POINT_WITH_PROPERTIES, ANYWHERE, NONE, 0,
+                new int[] { NAME, DICTIONARY });
+        register(PdfStreamLexer.BEGIN_MARKED_CONTENT, ANYWHERE, BEGIN_MARKED_CONTENT, 0, new int[] { NAME });
+        register(PdfStreamLexer.BEGIN_MARKED_CONTENT_WITH_PROPERTIES, ANYWHERE, BEGIN_MARKED_CONTENT, 0,
+                new int[] { NAME, DICTIONARY }, new int[] { NAME, NAME });
+        register(PdfStreamLexer.END_MARKED_CONTENT, ANYWHERE, END_MARKED_CONTENT, 0, NO_OPERANDS);
+        // Type 3 glyph operators, ID and EI have no signature, the grammar never accepts them as operators
+    }
+
+    private final int context;
+    private final int transition;
+    // Classes the first operand must have one of, 0 for none
+    private final int numberClass;
+    // Alternative patterns of operand kinds
+    private final int[][] operands;
+
+    private OperatorSignature(final int context, final int transition, final int numberClass,
+            final int[][] operands) {
+        this.context = context;
+        this.transition = transition;
+        this.numberClass = numberClass;
+        this.operands = operands;
+    }
+
+    /**
+     * Returns the signature of an operator token type, {@code null} for tokens which are never operators.
+     */
+    static OperatorSignature of(final int type) {
+        return type >= 0 && type < SIGNATURES.length ? SIGNATURES[type] : null;
+    }
+
+    int getContext() {
+        return this.context;
+    }
+
+    int getTransition() {
+        return this.transition;
+    }
+
+    int getNumberClass() {
+        return this.numberClass;
+    }
+
+    /**
+     * Returns whether a token is part of an operand (numbers, names, strings, arrays, dictionaries, ...) or a
+     * comment, rather than an operator.
+     */
+    static boolean isOperand(final int type) {
+        switch (type) {
+            case PdfStreamLexer.NUMBER:
+            case PdfStreamLexer.PDF_NAME:
+            case PdfStreamLexer.STRING:
+            case PdfStreamLexer.LSQUARE:
+            case PdfStreamLexer.RSQUARE:
+            case PdfStreamLexer.LDOUBLEANGLE:
+            case PdfStreamLexer.RDOUBLEANGLE:
+            case PdfStreamLexer.COMMENT:
+                return true;
+            default:
+                return type == ContentStreamScanner.TRUE || type == ContentStreamScanner.FALSE
+                        || type == ContentStreamScanner.NULL;
+        }
+    }
+
+    /**
+     * Returns whether the operand kinds from 0 to {@code count} (exclusive) match one of the patterns.
+     */
+    boolean accepts(final int[] kinds, final int count) {
+        for (int[] pattern : this.operands) {
+            if (matches(pattern, kinds, count)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(final int[] pattern, final int[] kinds, final int count) {
+        int numbers = 0;
+        int first = 0;
+        if (pattern.length > 0 && pattern[0] == NUMBERS) {
+            numbers = count - (pattern.length - 1);
+            if (numbers < 1) {
+                return false;
+            }
+            for (int i = 0; i < numbers; i++) {
+                if (kinds[i] != NUMBER) {
+                    return false;
+                }
+            }
+            first = 1;
+        } else if (count != pattern.length) {
+            return false;
+        }
+
+        for (int i = first; i < pattern.length; i++) {
+            if (kinds[numbers + i - first] != pattern[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void register(final int type, final int context, final int transition, final int numberClass,
+            final int[]... operands) {
+        SIGNATURES[type] = new OperatorSignature(context, transition, numberClass, operands);
+    }
+}
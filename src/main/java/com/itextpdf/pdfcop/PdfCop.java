@@ -29,22 +29,78 @@
  */
 package com.itextpdf.pdfcop;
 
-import com.itextpdf.antlr.PdfStreamLexer;
-import com.itextpdf.antlr.PdfStreamParser;
 import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfIndirectReference;
 import com.itextpdf.kernel.pdf.PdfPage;
 import com.itextpdf.kernel.pdf.PdfReader;
 import com.itextpdf.kernel.pdf.PdfStream;
 
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.function.Predicate;
 
-import org.antlr.v4.runtime.CharStreams;
-import org.antlr.v4.runtime.CommonTokenStream;
+public class PdfCop implements Closeable {
 
-public class PdfCop {
+    // Number of decoded pages allowed to wait for a worker, per worker thread.
+    private static final int PAGES_IN_FLIGHT_PER_THREAD = 2;
+
+    private final PdfCopValidator validator;
+    private final Executor executor;
+    private final int parallelism;
+    // Worker threads owned by this instance, created with the first document checked in parallel, so that they
+    // keep their recognizers warm from one document to the next
+    private ExecutorService ownExecutor;
+    private boolean closed;
+
+    public PdfCop() {
+        this(new PdfCopValidator());
+    }
+
+    public PdfCop(final PdfCopValidator validator) {
+        this(validator, null, 1);
+    }
+
+    /**
+     * Validates the pages of a document on {@code parallelism} worker threads owned by this instance. They are
+     * created with the first document and reused for the following ones until {@link #close()}.
+     */
+    public PdfCop(final int parallelism) {
+        this(new PdfCopValidator(), null, parallelism);
+    }
+
+    /**
+     * Validates the pages of a document on the provided executor. {@code parallelism} should match the number
+     * of threads the executor can dedicate to the validation, it bounds the number of decoded pages held in memory.
+     */
+    public PdfCop(final Executor executor, final int parallelism) {
+        this(new PdfCopValidator(), executor, parallelism);
+    }
+
+    public PdfCop(final PdfCopValidator validator, final Executor executor, final int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1, got " + parallelism);
+        }
+
+        this.validator = validator;
+        this.executor = executor;
+        this.parallelism = parallelism;
+    }
 
     public boolean isDocumentFollowingTheRules(final String pathToFile) throws IOException {
         FileInputStream fileInputStream = new FileInputStream(pathToFile);
@@ -70,47 +126,330 @@ public class PdfCop {
         return output;
     }
 
+    /**
+     * Returns {@code true} when all pages follow the rules, throws the {@link ContentStreamViolation} of the first
+     * failing page otherwise. A boolean can't tell that the check was cut short, so going over a budget of the
+     * validator throws a {@link ValidationInterruptedException}; {@link #checkDocument(PdfDocument, int)} with 1
+     * failing page returns an {@link ValidationVerdict#INCONCLUSIVE} verdict instead.
+     */
     public boolean isDocumentFollowingTheRules(final PdfDocument pdfDocument) {
-        for ( int pageNumber = 1; pageNumber <= pdfDocument.getNumberOfPages(); pageNumber++ ) {
-            PdfPage page = pdfDocument.getPage(pageNumber);
+        checkPages(pdfDocument, documentGuard(null), page -> {
+            validatePage(page);
+            return null;
+        }, result -> true);
 
-            StringBuilder stringBuilder = new StringBuilder();
+        return true;
+    }
 
-            for (int streamIndx = 0; streamIndx < page.getContentStreamCount(); streamIndx++) {
-                PdfStream contentStream = page.getContentStream(streamIndx);
-                byte[] bytes = contentStream.getBytes(true);
-                String syntax = new String(bytes);
+    public List<ContentStreamViolation> findViolations(final String pathToFile) throws IOException {
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfReader(pathToFile))) {
+            return findViolations(pdfDocument);
+        }
+    }
 
-                stringBuilder.append(syntax);
+    /**
+     * Checks all pages without stopping at the first violation, see {@link PdfCopValidator#findViolations(List)}.
+     * Returns the violations in page order, up to the maximum number of violations per document of the validator,
+     * none when the document follows the rules.
+     */
+    public List<ContentStreamViolation> findViolations(final PdfDocument pdfDocument) {
+        return explainDocument(pdfDocument).getViolations();
+    }
+
+    public DocumentValidationResult explainDocument(final String pathToFile) throws IOException {
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfReader(pathToFile))) {
+            return explainDocument(pdfDocument);
+        }
+    }
+
+    public DocumentValidationResult explainDocument(final PdfDocument pdfDocument) {
+        return explainDocument(pdfDocument, null);
+    }
+
+    /**
+     * Checks every page in two passes: a fast verdict first, SLL prediction bailing out at the first error with
+     * no parse tree, then, only for the pages failing it, full LL prediction with recovery to find all their
+     * violations. The result has the violations of every failing page, up to the maximum numbers of violations
+     * per page and per document of the validator. Valid documents cost about as much as with
+     * {@link #isDocumentFollowingTheRules(PdfDocument)}.
+     * <p>
+     * Going over a budget of the validator, or a cancellation through the token (which may be {@code null}), ends
+     * the check with what was found so far.
+     */
+    public DocumentValidationResult explainDocument(final PdfDocument pdfDocument,
+            final CancellationToken cancellationToken) {
+        int maxViolations = this.validator.getMaxViolationsPerDocument();
+        DocumentReport report = new DocumentReport(pdfDocument.getNumberOfPages());
+        try {
+            checkPages(pdfDocument, documentGuard(cancellationToken), page -> {
+                List<ContentStreamViolation> pageViolations = this.validator.explain(page.streams,
+                        Math.min(this.validator.getMaxViolationsPerPage(), maxViolations), page.guard);
+                for (ContentStreamViolation violation : pageViolations) {
+                    page.locate(violation);
+                }
+                return pageViolations;
+            }, pageViolations -> {
+                report.addPage(pageViolations, maxViolations);
+                return report.violations.size() < maxViolations;
+            });
+        } catch (ValidationInterruptedException e) {
+            return report.toResult(e.getReason());
+        }
+
+        return report.toResult(null);
+    }
+
+    public DocumentValidationResult checkDocument(final String pathToFile) throws IOException {
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfReader(pathToFile))) {
+            return checkDocument(pdfDocument);
+        }
+    }
+
+    /**
+     * Checks every page of a document, a failing page not stopping the check of the following ones.
+     */
+    public DocumentValidationResult checkDocument(final PdfDocument pdfDocument) {
+        return checkDocument(pdfDocument, Integer.MAX_VALUE);
+    }
+
+    public DocumentValidationResult checkDocument(final PdfDocument pdfDocument, final int maxFailingPages) {
+        return checkDocument(pdfDocument, maxFailingPages, null);
+    }
+
+    /**
+     * Checks the pages of a document in order, up to the given number of failing pages: 1 stops at the first
+     * failing page, as {@link #isDocumentFollowingTheRules(PdfDocument)} does. Going over a budget of the
+     * validator, or a cancellation through the token (which may be {@code null}), ends the check with what was
+     * found so far.
+     */
+    public DocumentValidationResult checkDocument(final PdfDocument pdfDocument, final int maxFailingPages,
+            final CancellationToken cancellationToken) {
+        if (maxFailingPages < 1) {
+            throw new IllegalArgumentException("Maximum failing pages must be positive: " + maxFailingPages);
+        }
+        DocumentReport report = new DocumentReport(pdfDocument.getNumberOfPages());
+        try {
+            checkPages(pdfDocument, documentGuard(cancellationToken), page -> {
+                try {
+                    validatePage(page);
+                    return Collections.<ContentStreamViolation>emptyList();
+                } catch (ContentStreamViolation e) {
+                    return Collections.singletonList(e);
+                }
+            }, violations -> {
+                report.addPage(violations, Integer.MAX_VALUE);
+                return report.failingPages.cardinality() < maxFailingPages;
+            });
+        } catch (ValidationInterruptedException e) {
+            return report.toResult(e.getReason());
+        }
+
+        return report.toResult(null);
+    }
+
+    private ValidationGuard documentGuard(final CancellationToken cancellationToken) {
+        return ValidationGuard.forDocument(this.validator.getDocumentBudget(), cancellationToken);
+    }
+
+    // Checks the pages, sequentially or on the executor, and hands the results over in page order until the
+    // consumer returns false
+    private <T> void checkPages(final PdfDocument pdfDocument, final ValidationGuard documentGuard,
+            final PageCheck<T> check, final Predicate<T> consumer) {
+        if (this.executor == null && this.parallelism == 1) {
+            for ( int pageNumber = 1; pageNumber <= pdfDocument.getNumberOfPages(); pageNumber++ ) {
+                if (! consumer.test(check.check(readPageContent(pdfDocument, pageNumber, documentGuard)))) {
+                    return;
+                }
             }
 
-            PdfStreamLexer streamLexer = new PdfStreamLexer(CharStreams.fromString(stringBuilder.toString()));
-            streamLexer.removeErrorListeners();
-            streamLexer.addErrorListener(ThrowingErrorListener.INSTANCE);
+            return;
+        }
+
+        Executor pageExecutor = this.executor != null ? this.executor : ownExecutor();
+
+        // PdfDocument is not thread-safe: pages are decoded on the calling thread, in order, and only the
+        // lexing and parsing is handed over to the workers. Results are awaited in page order so that the
+        // first failing page is reported, exactly as in the sequential loop.
+        Deque<Future<T>> pagesInFlight = new ArrayDeque<>();
+        int maxPagesInFlight = this.parallelism * PAGES_IN_FLIGHT_PER_THREAD;
+        try {
+            for ( int pageNumber = 1; pageNumber <= pdfDocument.getNumberOfPages(); pageNumber++ ) {
+                PageContent page;
+                try {
+                    page = readPageContent(pdfDocument, pageNumber, documentGuard);
+                } catch (ValidationInterruptedException e) {
+                    // The pages handed over before are reported first, as in the sequential loop
+                    while (! pagesInFlight.isEmpty()) {
+                        if (! consumer.test(awaitPage(pagesInFlight.removeFirst()))) {
+                            return;
+                        }
+                    }
+                    throw e;
+                }
+                FutureTask<T> pageTask = new FutureTask<>(() -> check.check(page));
+                pageExecutor.execute(pageTask);
+                pagesInFlight.addLast(pageTask);
 
-            CommonTokenStream tokens = new CommonTokenStream(streamLexer);
-            PdfStreamParser streamParser = new PdfStreamParser(tokens);
-            streamParser.removeErrorListeners();
-            streamParser.addErrorListener(ThrowingErrorListener.INSTANCE);
+                if (pagesInFlight.size() >= maxPagesInFlight
+                        && ! consumer.test(awaitPage(pagesInFlight.removeFirst()))) {
+                    return;
+                }
+            }
 
-            streamParser.content_stream();
+            while (! pagesInFlight.isEmpty()) {
+                if (! consumer.test(awaitPage(pagesInFlight.removeFirst()))) {
+                    return;
+                }
+            }
+        } finally {
+            for (Future<T> pageTask : pagesInFlight) {
+                pageTask.cancel(true);
+            }
         }
+    }
 
-        return true;
+    /**
+     * Shuts down the worker threads owned by this instance, if any. An executor provided by the caller is left
+     * alone. Documents can still be checked sequentially afterwards.
+     */
+    @Override
+    public synchronized void close() {
+        this.closed = true;
+        if (this.ownExecutor != null) {
+            this.ownExecutor.shutdownNow();
+            this.ownExecutor = null;
+        }
+    }
+
+    private synchronized ExecutorService ownExecutor() {
+        if (this.closed) {
+            throw new IllegalStateException("PdfCop is closed");
+        }
+        if (this.ownExecutor == null) {
+            this.ownExecutor = Executors.newFixedThreadPool(this.parallelism, runnable -> {
+                Thread thread = new Thread(runnable, "pdfcop-page-validator");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return this.ownExecutor;
     }
 
     public boolean doesSnippetFollowTheRules(final String snippet) {
-        PdfStreamLexer streamLexer = new PdfStreamLexer(CharStreams.fromString(snippet));
-        streamLexer.removeErrorListeners();
-        streamLexer.addErrorListener(ThrowingErrorListener.INSTANCE);
+        return this.validator.validate(snippet);
+    }
 
-        CommonTokenStream tokens = new CommonTokenStream(streamLexer);
-        PdfStreamParser streamParser = new PdfStreamParser(tokens);
-        streamParser.removeErrorListeners();
-        streamParser.addErrorListener(ThrowingErrorListener.INSTANCE);
+    public boolean doesSnippetFollowTheRules(final byte[] snippet) {
+        return this.validator.validate(snippet);
+    }
 
-        streamParser.content_stream();
+    public boolean doesSnippetFollowTheRules(final ByteBuffer snippet) {
+        return this.validator.validate(snippet);
+    }
 
-        return true;
+    private void validatePage(final PageContent page) {
+        try {
+            this.validator.validate(page.streams, page.guard);
+        } catch (ContentStreamViolation e) {
+            page.locate(e);
+            throw e;
+        }
+    }
+
+    private PageContent readPageContent(final PdfDocument pdfDocument, final int pageNumber,
+            final ValidationGuard documentGuard) {
+        documentGuard.check();
+        ValidationGuard pageGuard = documentGuard.forPageOfDocument(this.validator.getPageBudget());
+        ContentStreamDecoder decoder = new ContentStreamDecoder(pageGuard);
+        PdfPage page = pdfDocument.getPage(pageNumber);
+        int streamCount = page.getContentStreamCount();
+        List<byte[]> streams = new ArrayList<>(streamCount);
+        PdfIndirectReference[] references = new PdfIndirectReference[streamCount];
+        for (int streamIndx = 0; streamIndx < streamCount; streamIndx++) {
+            PdfStream contentStream = page.getContentStream(streamIndx);
+            streams.add(decoder.decode(contentStream));
+            references[streamIndx] = contentStream.getIndirectReference();
+        }
+
+        return new PageContent(pageNumber, streams, references, pageGuard);
+    }
+
+    private static <T> T awaitPage(final Future<T> pageTask) {
+        try {
+            return pageTask.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            // As when the lexer of a sequential check sees the interrupt
+            Thread.currentThread().interrupt();
+            throw new ValidationInterruptedException(InconclusiveReason.CANCELLED);
+        }
+    }
+
+    private interface PageCheck<T> {
+
+        T check(PageContent page);
+    }
+
+    // Decoded content streams of a page, with what is needed to locate a violation in the document
+    private static final class PageContent {
+
+        private final int pageNumber;
+        private final List<byte[]> streams;
+        private final PdfIndirectReference[] references;
+        private final ValidationGuard guard;
+
+        PageContent(final int pageNumber, final List<byte[]> streams, final PdfIndirectReference[] references,
+                final ValidationGuard guard) {
+            this.pageNumber = pageNumber;
+            this.streams = streams;
+            this.references = references;
+            this.guard = guard;
+        }
+
+        void locate(final ContentStreamViolation violation) {
+            violation.setPageNumber(this.pageNumber);
+            int streamIndex = violation.getStreamIndex();
+            if (streamIndex >= 0 && streamIndex < this.references.length && this.references[streamIndex] != null) {
+                PdfIndirectReference reference = this.references[streamIndex];
+                violation.setStreamObject(reference.getObjNumber(), reference.getGenNumber());
+            }
+        }
+    }
+
+    // What a document check found so far, the pages being handed over in order
+    private static final class DocumentReport {
+
+        private final int numberOfPages;
+        private final BitSet failingPages;
+        private final List<ContentStreamViolation> violations = new ArrayList<>();
+        private int checkedPageCount;
+
+        DocumentReport(final int numberOfPages) {
+            this.numberOfPages = numberOfPages;
+            this.failingPages = new BitSet(numberOfPages + 1);
+        }
+
+        // Adds the violations of the next page, up to the given number of violations in all
+        void addPage(final List<ContentStreamViolation> pageViolations, final int maxViolations) {
+            this.checkedPageCount++;
+            if (! pageViolations.isEmpty()) {
+                this.failingPages.set(pageViolations.get(0).getPageNumber());
+                this.violations.addAll(pageViolations.subList(0, Math.min(pageViolations.size(),
+                        maxViolations - this.violations.size())));
+            }
+        }
+
+        DocumentValidationResult toResult(final InconclusiveReason inconclusiveReason) {
+            return new DocumentValidationResult(this.numberOfPages, this.checkedPageCount, this.failingPages,
+                    this.violations, inconclusiveReason);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,506 @@
+/*
+    Copyright (c) 2023 iText Group NV
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+ */
+package com.itextpdf.pdfcop;
+
+import com.itextpdf.antlr.PdfStreamLexer;
+import com.itextpdf.antlr.PdfStreamParser;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+
+/**
+ * Checks content streams against the PdfStream grammar. A validator is meant to be created once and shared: it is
+ * safe to use from several threads at the same time, every thread gets its own lexer and parser which are reset
+ * for each content stream instead of being created again.
+ */
+public class PdfCopValidator {
+
+    private final PredictionStrategy predictionStrategy;
+    private final ValidationEngine validationEngine;
+    private final ValidationLevel validationLevel;
+    private final int maxNestingDepth;
+    private final int maxViolationsPerPage;
+    private final int maxViolationsPerDocument;
+    private final ValidationBudget pageBudget;
+    private final ValidationBudget documentBudget;
+    private final ValidationStatistics statistics = new ValidationStatistics();
+    private final ThreadLocal<Recognizers> recognizers;
+    private final ThreadLocal<ByteLevelValidator> byteLevelValidators;
+
+    public PdfCopValidator() {
+        this(new ValidationProperties());
+    }
+
+    public PdfCopValidator(final ValidationProperties properties) {
+        this.predictionStrategy = properties.getPredictionStrategy();
+        this.validationEngine = properties.getValidationEngine();
+        this.validationLevel = properties.getValidationLevel();
+        this.maxNestingDepth = properties.getMaxNestingDepth();
+        this.maxViolationsPerPage = properties.getMaxViolationsPerPage();
+        this.maxViolationsPerDocument = properties.getMaxViolationsPerDocument();
+        this.pageBudget = new ValidationBudget(properties.getPageBudget());
+        this.documentBudget = new ValidationBudget(properties.getDocumentBudget());
+        this.recognizers = ThreadLocal.withInitial(() -> new Recognizers(this.maxNestingDepth, this.validationLevel));
+        this.byteLevelValidators = ThreadLocal.withInitial(() -> new ByteLevelValidator(this.statistics,
+                this.maxNestingDepth, this.validationLevel));
+    }
+
+    public ValidationStatistics getStatistics() {
+        return this.statistics;
+    }
+
+    public boolean validate(final String content) {
+        if (this.validationEngine == ValidationEngine.BYTE_LEVEL && isLatin1(content)) {
+            return validate(content.getBytes(StandardCharsets.ISO_8859_1));
+        }
+        return validate(CharStreams.fromString(content));
+    }
+
+    public boolean validate(final byte[] content) {
+        if (this.validationEngine == ValidationEngine.BYTE_LEVEL) {
+            this.statistics.contentStreamChecked();
+            byteLevelValidator(startPage(null, content.length)).validate(content, 0, content.length);
+            return true;
+        }
+        return validate(ByteCharStream.fromBytes(content));
+    }
+
+    public boolean validate(final ByteBuffer content) {
+        if (this.validationEngine == ValidationEngine.BYTE_LEVEL && content.hasArray()) {
+            this.statistics.contentStreamChecked();
+            byteLevelValidator(startPage(null, content.remaining())).validate(content.array(),
+                    content.arrayOffset() + content.position(), content.remaining());
+            return true;
+        }
+        if (this.validationEngine == ValidationEngine.BYTE_LEVEL) {
+            byte[] bytes = new byte[content.remaining()];
+            content.duplicate().get(bytes);
+            return validate(bytes);
+        }
+        return validate(ByteCharStream.fromBuffer(content));
+    }
+
+    /**
+     * Validates the content streams of a page as a whole, as if they were concatenated with white space in between.
+     */
+    public boolean validate(final List<byte[]> contentStreams) {
+        return validate(contentStreams, null);
+    }
+
+    boolean validate(final List<byte[]> contentStreams, final ValidationGuard pageGuard) {
+        if (this.validationEngine == ValidationEngine.BYTE_LEVEL) {
+            this.statistics.contentStreamChecked();
+            byteLevelValidator(startPage(pageGuard, length(contentStreams))).validate(contentStreams);
+            return true;
+        }
+        return validate(toCharStream(contentStreams), pageGuard);
+    }
+
+    /**
+     * Returns {@code true} when the content follows the rules, throws a {@link ContentStreamViolation} describing
+     * the first violation otherwise, or a {@link ValidationInterruptedException} when going over the page budget. No
+     * parse tree is built. Character streams are always checked by the {@link ValidationEngine#ANTLR} engine.
+     */
+    public boolean validate(final CharStream content) {
+        return validate(content, null);
+    }
+
+    private boolean validate(final CharStream content, final ValidationGuard pageGuard) {
+        this.statistics.contentStreamChecked();
+        Recognizers recognizers = recognizers(startPage(pageGuard, content.size()));
+        if (this.validationLevel == ValidationLevel.LEXICAL) {
+            recognizers.lex(content, this.statistics, null);
+            return true;
+        }
+        recognizers.parse(content, this.predictionStrategy, this.statistics, false);
+
+        return true;
+    }
+
+    /**
+     * Same as {@link #validate(CharStream)} but builds and returns the parse tree of the content, parsing it even
+     * at the {@link ValidationLevel#LEXICAL} level.
+     */
+    public PdfStreamParser.Content_streamContext parse(final CharStream content) {
+        this.statistics.contentStreamChecked();
+        return recognizers(startPage(null, content.size())).parse(content, this.predictionStrategy,
+                this.statistics, true);
+    }
+
+    /**
+     * Checks content without stopping at the first violation: the parser recovers at the next operator and goes
+     * on, up to the maximum number of violations per page. Returns the violations found, none when the content
+     * follows the rules. Valid content is checked exactly as by {@link #validate(byte[])}.
+     * <p>
+     * Both engines agree on whether there are violations, the violations after the first one depend on how the
+     * engine recovers.
+     */
+    public List<ContentStreamViolation> findViolations(final byte[] content) {
+        return findViolations(Collections.singletonList(content));
+    }
+
+    /**
+     * Same as {@link #findViolations(byte[])} for the content streams of a page, checked as a whole.
+     */
+    public List<ContentStreamViolation> findViolations(final List<byte[]> contentStreams) {
+        this.statistics.contentStreamChecked();
+        return collectViolations(contentStreams, this.maxViolationsPerPage, this.predictionStrategy,
+                startPage(null, length(contentStreams)), false);
+    }
+
+    /**
+     * Two passes over a page: the cheapest verdict first, SLL prediction bailing out at the first error without
+     * building anything, and only when it fails full LL prediction with recovery to find the violations. Valid
+     * pages, the common case, pay nothing for the diagnostics.
+     */
+    List<ContentStreamViolation> explain(final List<byte[]> contentStreams, final int maxViolations,
+            final ValidationGuard pageGuard) {
+        this.statistics.contentStreamChecked();
+        ValidationGuard guard = startPage(pageGuard, length(contentStreams));
+        if (this.validationEngine == ValidationEngine.BYTE_LEVEL || this.validationLevel == ValidationLevel.LEXICAL) {
+            // No cheaper configuration, collecting violations only costs once one is found
+            return collectViolations(contentStreams, maxViolations, this.predictionStrategy, guard, false);
+        }
+        this.statistics.sllParsed();
+        if (recognizers(guard).isFollowingTheRulesWithSll(toCharStream(contentStreams), this.statistics)) {
+            return Collections.emptyList();
+        }
+        this.statistics.llFallenBackTo();
+        return collectViolations(contentStreams, maxViolations, PredictionStrategy.LL, guard, true);
+    }
+
+    // When the content is known to fail, or most likely to, it isn't parsed once more before collecting
+    private List<ContentStreamViolation> collectViolations(final List<byte[]> contentStreams,
+            final int maxViolations, final PredictionStrategy predictionStrategy, final ValidationGuard guard,
+            final boolean knownToFail) {
+        ViolationCollector violations = new ViolationCollector(maxViolations);
+        try {
+            if (this.validationEngine == ValidationEngine.BYTE_LEVEL) {
+                byteLevelValidator(guard).validate(contentStreams, violations);
+            } else if (this.validationLevel == ValidationLevel.LEXICAL) {
+                recognizers(guard).lex(toCharStream(contentStreams), this.statistics, violations);
+            } else {
+                recognizers(guard).findViolations(toCharStream(contentStreams), predictionStrategy, this.statistics,
+                        violations, knownToFail);
+            }
+        } catch (ParseCancellationException e) {
+            if (e != ViolationCollector.LIMIT_REACHED) {
+                throw e;
+            }
+        }
+        // The lexer runs ahead of the parser
+        List<ContentStreamViolation> found = violations.getViolations();
+        found.sort(Comparator.comparingInt(ContentStreamViolation::getOffset));
+        return found;
+    }
+
+    int getMaxViolationsPerPage() {
+        return this.maxViolationsPerPage;
+    }
+
+    int getMaxViolationsPerDocument() {
+        return this.maxViolationsPerDocument;
+    }
+
+    ValidationBudget getPageBudget() {
+        return this.pageBudget;
+    }
+
+    ValidationBudget getDocumentBudget() {
+        return this.documentBudget;
+    }
+
+    // Guard of a page of a document, or of content checked on its own, started on content of the given size
+    private ValidationGuard startPage(final ValidationGuard pageGuard, final long contentBytes) {
+        if (pageGuard != null) {
+            // The bytes of a page of a document were counted as they were decoded
+            pageGuard.start();
+            return pageGuard;
+        }
+        ValidationGuard guard = ValidationGuard.forPage(this.pageBudget);
+        if (guard != null) {
+            guard.decoded(contentBytes);
+            guard.start();
+        }
+        return guard;
+    }
+
+    private Recognizers recognizers(final ValidationGuard guard) {
+        Recognizers recognizers = this.recognizers.get();
+        recognizers.setGuard(guard);
+        return recognizers;
+    }
+
+    private ByteLevelValidator byteLevelValidator(final ValidationGuard guard) {
+        ByteLevelValidator validator = this.byteLevelValidators.get();
+        validator.setGuard(guard);
+        return validator;
+    }
+
+    private static long length(final List<byte[]> contentStreams) {
+        long length = 0;
+        for (byte[] contentStream : contentStreams) {
+            length += contentStream.length;
+        }
+        return length;
+    }
+
+    private static CharStream toCharStream(final List<byte[]> contentStreams) {
+        return contentStreams.size() == 1 ? ByteCharStream.fromBytes(contentStreams.get(0))
+                : MultiStreamCharStream.fromStreams(contentStreams);
+    }
+
+    private static boolean isLatin1(final String content) {
+        for (int i = 0; i < content.length(); i++) {
+            if (content.charAt(i) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class Recognizers {
+
+        private final PdfStreamLexer streamLexer;
+        private final CommonTokenStream tokens;
+        private final PdfStreamParser streamParser;
+        private final ViolationErrorStrategy llErrorStrategy = new ViolationErrorStrategy();
+        private final BailErrorStrategy sllErrorStrategy = new SllBailErrorStrategy();
+        // Guard of the content being checked, null when unlimited
+        private ValidationGuard guard;
+
+        Recognizers(final int maxNestingDepth, final ValidationLevel validationLevel) {
+            this.streamLexer = new PdfStreamLexer(null);
+            this.streamLexer.setMaxNestingDepth(maxNestingDepth);
+            this.streamLexer.removeErrorListeners();
+            this.streamLexer.addErrorListener(ThrowingErrorListener.INSTANCE);
+
+            this.tokens = new CommonTokenStream(this.streamLexer);
+            this.streamParser = new PdfStreamParser(this.tokens);
+            this.streamParser.removeErrorListeners();
+            this.streamParser.addErrorListener(ThrowingErrorListener.INSTANCE);
+            this.streamParser.setCheckingOperandRanges(validationLevel == ValidationLevel.SEMANTIC);
+        }
+
+        void setGuard(final ValidationGuard guard) {
+            if (guard != this.guard) {
+                this.guard = guard;
+                this.streamLexer.setCheckpoint(guard == null ? null
+                        : () -> guard.tokens(PdfStreamLexer.CHECKPOINT_INTERVAL));
+            }
+        }
+
+        // Counts the tokens lexed since the last checkpoint, before the lexer is reset
+        private void lexed() {
+            if (this.guard != null) {
+                this.guard.lastTokens(this.streamLexer.getTokenCount() % PdfStreamLexer.CHECKPOINT_INTERVAL);
+            }
+        }
+
+        // The lexer alone, its errors going to the given listener or thrown
+        void lex(final CharStream content, final ValidationStatistics statistics,
+                final ANTLRErrorListener listener) {
+            if (listener != null) {
+                this.streamLexer.removeErrorListeners();
+                this.streamLexer.addErrorListener(listener);
+            }
+            this.streamLexer.setInputStream(content);
+            try {
+                while (this.streamLexer.nextToken().getType() != Token.EOF) {
+                    // Nothing to do with the tokens
+                }
+            } finally {
+                statistics.compatibilitySectionsSkipped(this.streamLexer.getCompatibilitySectionCharCount());
+                lexed();
+                if (listener != null) {
+                    this.streamLexer.removeErrorListeners();
+                    this.streamLexer.addErrorListener(ThrowingErrorListener.INSTANCE);
+                }
+                this.streamLexer.setInputStream(null);
+            }
+        }
+
+        PdfStreamParser.Content_streamContext parse(final CharStream content,
+                final PredictionStrategy predictionStrategy, final ValidationStatistics statistics,
+                final boolean buildParseTree) {
+            this.streamLexer.setInputStream(content);
+            this.tokens.setTokenSource(this.streamLexer);
+            this.streamParser.setInputStream(this.tokens);
+            this.streamParser.setBuildParseTree(buildParseTree);
+            try {
+                if (predictionStrategy == PredictionStrategy.SLL_THEN_LL) {
+                    statistics.sllParsed();
+                    PdfStreamParser.Content_streamContext context = parseWithSll();
+                    if (context != null) {
+                        return context;
+                    }
+
+                    statistics.llFallenBackTo();
+                    this.tokens.seek(0);
+                    this.streamParser.reset();
+                }
+
+                this.streamParser.setErrorHandler(this.llErrorStrategy);
+                this.streamParser.getInterpreter().setPredictionMode(PredictionMode.LL);
+                return this.streamParser.content_stream();
+            } finally {
+                statistics.compatibilitySectionsSkipped(this.streamLexer.getCompatibilitySectionCharCount());
+                lexed();
+                // Don't keep the content and its tokens alive until the thread validates something else
+                this.streamLexer.setInputStream(null);
+                this.tokens.setTokenSource(this.streamLexer);
+            }
+        }
+
+        // A parser error may be an SLL false alarm, a lexer error is a violation in any case
+        boolean isFollowingTheRulesWithSll(final CharStream content, final ValidationStatistics statistics) {
+            this.streamLexer.setInputStream(content);
+            this.tokens.setTokenSource(this.streamLexer);
+            this.streamParser.setInputStream(this.tokens);
+            this.streamParser.setBuildParseTree(false);
+            try {
+                if (parseWithSll() == null) {
+                    return false;
+                }
+                // Failing content is lexed again, its compatibility sections are counted then
+                statistics.compatibilitySectionsSkipped(this.streamLexer.getCompatibilitySectionCharCount());
+                return true;
+            } catch (ContentStreamViolation e) {
+                return false;
+            } finally {
+                lexed();
+                this.streamLexer.setInputStream(null);
+                this.tokens.setTokenSource(this.streamLexer);
+            }
+        }
+
+        void findViolations(final CharStream content, final PredictionStrategy predictionStrategy,
+                final ValidationStatistics statistics, final ViolationCollector violations,
+                final boolean knownToFail) {
+            if (! knownToFail) {
+                // Valid content, the common case, is checked as fast as by validate
+                try {
+                    parse(content, predictionStrategy, statistics, false);
+                    return;
+                } catch (ContentStreamViolation e) {
+                    content.seek(0);
+                }
+            }
+
+            // The lexer reports its errors and goes on, the parser starts again after each violation
+            this.streamLexer.removeErrorListeners();
+            this.streamLexer.addErrorListener(violations);
+            this.streamLexer.setInputStream(content);
+            this.tokens.setTokenSource(this.streamLexer);
+            this.streamParser.setInputStream(this.tokens);
+            this.streamParser.setBuildParseTree(false);
+            this.streamParser.setErrorHandler(this.llErrorStrategy);
+            this.streamParser.getInterpreter().setPredictionMode(PredictionMode.LL);
+            try {
+                int start = 0;
+                while (start >= 0) {
+                    this.streamParser.reset();
+                    this.tokens.seek(start);
+                    try {
+                        this.streamParser.content_stream();
+                        start = -1;
+                    } catch (ContentStreamViolation e) {
+                        violations.add(e);
+                        start = resynchronizationPoint(e);
+                    }
+                }
+            } finally {
+                if (knownToFail) {
+                    // Not counted by a parse before
+                    statistics.compatibilitySectionsSkipped(this.streamLexer.getCompatibilitySectionCharCount());
+                }
+                lexed();
+                this.streamLexer.removeErrorListeners();
+                this.streamLexer.addErrorListener(ThrowingErrorListener.INSTANCE);
+                this.streamLexer.setInputStream(null);
+                this.tokens.setTokenSource(this.streamLexer);
+            }
+        }
+
+        // Index of the token to parse from after a violation, -1 at the end of the content: past the operator
+        // following the offending token, or past the end of the text object the violation is in. Marked content
+        // sequences can't be skipped this way, they may hold the rest of the page.
+        private int resynchronizationPoint(final ContentStreamViolation violation) {
+            boolean inTextObject = violation.isInRule(PdfStreamParser.RULE_textObject);
+            this.tokens.seek(Math.max(violation.getTokenIndex(), this.tokens.index()));
+            while (true) {
+                int type = this.tokens.LA(1);
+                if (type == Token.EOF) {
+                    return -1;
+                }
+                this.tokens.consume();
+                if (inTextObject ? type == PdfStreamLexer.END_TEXT : ! OperatorSignature.isOperand(type)) {
+                    return this.tokens.index();
+                }
+            }
+        }
+
+        private PdfStreamParser.Content_streamContext parseWithSll() {
+            this.streamParser.setErrorHandler(this.sllErrorStrategy);
+            this.streamParser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+            try {
+                return this.streamParser.content_stream();
+            } catch (ParseCancellationException e) {
+                // Lexer errors don't depend on the prediction mode, only bail-outs of the parser are retried
+                if (e.getCause() instanceof RecognitionException) {
+                    return null;
+                }
+                throw e;
+            }
+        }
+    }
+
+    // Bails out without notifying the error listeners, the full LL parse reports the actual violation.
+    private static final class SllBailErrorStrategy extends BailErrorStrategy {
+
+        @Override
+        public void reportError(final Parser recognizer, final RecognitionException e) {
+        }
+    }
+}
@@ -30,10 +30,14 @@
 package com.itextpdf.pdfcop;
 
 import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.Parser;
 import org.antlr.v4.runtime.RecognitionException;
 import org.antlr.v4.runtime.Recognizer;
 import org.antlr.v4.runtime.misc.ParseCancellationException;
 
+/**
+ * Throws a {@link ContentStreamViolation} on the first syntax error.
+ */
 public class ThrowingErrorListener extends BaseErrorListener {
 
     public static final ThrowingErrorListener INSTANCE = new ThrowingErrorListener();
@@ -41,6 +45,8 @@ public class ThrowingErrorListener extends BaseErrorListener {
     @Override
     public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line, int charPositionInLine, String msg, RecognitionException e)
             throws ParseCancellationException {
-        throw new ParseCancellationException("line " + line + ":" + charPositionInLine + " " + msg);
+        throw ContentStreamViolation.of(recognizer, offendingSymbol, line, charPositionInLine, () -> msg, e,
+                e != null && recognizer instanceof Parser
+                        ? new ExpectedTokens(recognizer.getATN(), e.getOffendingState(), e.getCtx()) : null);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,107 @@
+/*
+    Copyright (c) 2023 iText Group NV
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+ */
+package com.itextpdf.pdfcop;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits on the work spent checking a page or a document. Going over one stops the check between two tokens with
+ * a {@link ValidationInterruptedException}, the verdict being {@link ValidationVerdict#INCONCLUSIVE}. There are no
+ * limits by default.
+ */
+public class ValidationBudget {
+
+    private long maxTimeNanos = Long.MAX_VALUE;
+    private long maxDecodedBytes = Long.MAX_VALUE;
+    private long maxTokens = Long.MAX_VALUE;
+
+    public ValidationBudget() {
+    }
+
+    ValidationBudget(final ValidationBudget budget) {
+        this.maxTimeNanos = budget.maxTimeNanos;
+        this.maxDecodedBytes = budget.maxDecodedBytes;
+        this.maxTokens = budget.maxTokens;
+    }
+
+    public long getMaxTimeNanos() {
+        return this.maxTimeNanos;
+    }
+
+    /**
+     * Sets the wall-clock time the check may take. It is looked at every
+     * {@link com.itextpdf.antlr.PdfStreamLexer#CHECKPOINT_INTERVAL} tokens and before each page.
+     */
+    public ValidationBudget setMaxTime(final long maxTime, final TimeUnit unit) {
+        if (maxTime < 1) {
+            throw new IllegalArgumentException("Maximum time must be positive: " + maxTime);
+        }
+        this.maxTimeNanos = unit.toNanos(maxTime);
+        return this;
+    }
+
+    public long getMaxDecodedBytes() {
+        return this.maxDecodedBytes;
+    }
+
+    /**
+     * Sets how many bytes of decoded content streams may be checked. The content streams of a document are
+     * decoded within what is left, FlateDecode stopping as soon as its output goes over. Content handed to a
+     * validator directly is counted before it is lexed.
+     */
+    public ValidationBudget setMaxDecodedBytes(final long maxDecodedBytes) {
+        if (maxDecodedBytes < 1) {
+            throw new IllegalArgumentException("Maximum decoded bytes must be positive: " + maxDecodedBytes);
+        }
+        this.maxDecodedBytes = maxDecodedBytes;
+        return this;
+    }
+
+    public long getMaxTokens() {
+        return this.maxTokens;
+    }
+
+    /**
+     * Sets how many tokens may be lexed, counted every {@link com.itextpdf.antlr.PdfStreamLexer#CHECKPOINT_INTERVAL}
+     * tokens. Content lexed again to find its violations counts again.
+     */
+    public ValidationBudget setMaxTokens(final long maxTokens) {
+        if (maxTokens < 1) {
+            throw new IllegalArgumentException("Maximum tokens must be positive: " + maxTokens);
+        }
+        this.maxTokens = maxTokens;
+        return this;
+    }
+
+    boolean isUnlimited() {
+        return this.maxTimeNanos == Long.MAX_VALUE && this.maxDecodedBytes == Long.MAX_VALUE
+                && this.maxTokens == Long.MAX_VALUE;
+    }
+}
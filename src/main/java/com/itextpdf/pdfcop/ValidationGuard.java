@@ -0,0 +1,152 @@
+/*
+    Copyright (c) 2023 iText Group NV
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+ */
+package com.itextpdf.pdfcop;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a check within its {@link ValidationBudget}: the budget of a page, and through its parent the one of the
+ * document, shared by the pages checked concurrently. Throws a {@link ValidationInterruptedException} once a
+ * budget is spent, the document is cancelled or the thread is interrupted.
+ */
+final class ValidationGuard {
+
+    private final ValidationGuard document;
+    private final ValidationBudget budget;
+    private final CancellationToken cancellationToken;
+    private final InconclusiveReason timeReason;
+    private final InconclusiveReason decodedBytesReason;
+    private final InconclusiveReason tokensReason;
+    private final AtomicLong decodedBytes = new AtomicLong();
+    private final AtomicLong tokens = new AtomicLong();
+    private volatile long startNanos;
+
+    private ValidationGuard(final ValidationGuard document, final ValidationBudget budget,
+            final CancellationToken cancellationToken, final boolean documentLevel) {
+        this.document = document;
+        this.budget = budget;
+        this.cancellationToken = cancellationToken;
+        this.timeReason = documentLevel ? InconclusiveReason.DOCUMENT_TIME : InconclusiveReason.PAGE_TIME;
+        this.decodedBytesReason = documentLevel ? InconclusiveReason.DOCUMENT_DECODED_BYTES
+                : InconclusiveReason.PAGE_DECODED_BYTES;
+        this.tokensReason = documentLevel ? InconclusiveReason.DOCUMENT_TOKENS : InconclusiveReason.PAGE_TOKENS;
+        this.startNanos = System.nanoTime();
+    }
+
+    static ValidationGuard forDocument(final ValidationBudget budget, final CancellationToken cancellationToken) {
+        return new ValidationGuard(null, budget, cancellationToken, true);
+    }
+
+    /**
+     * Guard of content checked on its own, {@code null} when there is nothing to guard.
+     */
+    static ValidationGuard forPage(final ValidationBudget budget) {
+        return budget.isUnlimited() ? null : new ValidationGuard(null, budget, null, false);
+    }
+
+    ValidationGuard forPageOfDocument(final ValidationBudget budget) {
+        return new ValidationGuard(this, budget, null, false);
+    }
+
+    /**
+     * Starts the check of the content, the time of a page being counted from there.
+     */
+    void start() {
+        this.startNanos = System.nanoTime();
+        if (this.document != null) {
+            this.document.check();
+        }
+    }
+
+    /**
+     * Counts decoded content bytes, throwing once they go over the budget of the page or of the document.
+     */
+    void decoded(final long count) {
+        if (this.decodedBytes.addAndGet(count) > this.budget.getMaxDecodedBytes()) {
+            throw new ValidationInterruptedException(this.decodedBytesReason);
+        }
+        if (this.document != null) {
+            this.document.decoded(count);
+        }
+    }
+
+    /**
+     * Throws when {@code count} more decoded bytes would go over the budget of the page or of the document,
+     * without counting them.
+     */
+    void checkDecodedBytes(final long count) {
+        if (count > this.budget.getMaxDecodedBytes() - this.decodedBytes.get()) {
+            throw new ValidationInterruptedException(this.decodedBytesReason);
+        }
+        if (this.document != null) {
+            this.document.checkDecodedBytes(count);
+        }
+    }
+
+    /**
+     * Counts tokens lexed and checks all budgets.
+     */
+    void tokens(final long count) {
+        addTokens(count);
+        check();
+    }
+
+    /**
+     * Counts the last tokens of a lexing pass, the content having been checked anyway.
+     */
+    void lastTokens(final long count) {
+        this.tokens.addAndGet(count);
+        if (this.document != null) {
+            this.document.tokens.addAndGet(count);
+        }
+    }
+
+    void check() {
+        if ((this.cancellationToken != null && this.cancellationToken.isCancelled())
+                || Thread.currentThread().isInterrupted()) {
+            throw new ValidationInterruptedException(InconclusiveReason.CANCELLED);
+        }
+        if (System.nanoTime() - this.startNanos > this.budget.getMaxTimeNanos()) {
+            throw new ValidationInterruptedException(this.timeReason);
+        }
+        if (this.document != null) {
+            this.document.check();
+        }
+    }
+
+    private void addTokens(final long count) {
+        if (this.tokens.addAndGet(count) > this.budget.getMaxTokens()) {
+            throw new ValidationInterruptedException(this.tokensReason);
+        }
+        if (this.document != null) {
+            this.document.addTokens(count);
+        }
+    }
+}
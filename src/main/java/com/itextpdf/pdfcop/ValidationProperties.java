@@ -0,0 +1,148 @@
+/*
+    Copyright (c) 2023 iText Group NV
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+ */
+package com.itextpdf.pdfcop;
+
+import com.itextpdf.antlr.PdfStreamLexer;
+
+/**
+ * Settings of a {@link PdfCopValidator}. The validator copies them when it is created.
+ */
+public class ValidationProperties {
+
+    private PredictionStrategy predictionStrategy = PredictionStrategy.LL;
+    private ValidationEngine validationEngine = ValidationEngine.ANTLR;
+    private ValidationLevel validationLevel = ValidationLevel.SEMANTIC;
+    private int maxNestingDepth = PdfStreamLexer.DEFAULT_MAX_NESTING_DEPTH;
+    private int maxViolationsPerPage = 100;
+    private int maxViolationsPerDocument = 1000;
+    private ValidationBudget pageBudget = new ValidationBudget();
+    private ValidationBudget documentBudget = new ValidationBudget();
+
+    public PredictionStrategy getPredictionStrategy() {
+        return this.predictionStrategy;
+    }
+
+    public ValidationProperties setPredictionStrategy(final PredictionStrategy predictionStrategy) {
+        this.predictionStrategy = predictionStrategy;
+        return this;
+    }
+
+    public ValidationEngine getValidationEngine() {
+        return this.validationEngine;
+    }
+
+    public ValidationProperties setValidationEngine(final ValidationEngine validationEngine) {
+        this.validationEngine = validationEngine;
+        return this;
+    }
+
+    public ValidationLevel getValidationLevel() {
+        return this.validationLevel;
+    }
+
+    public ValidationProperties setValidationLevel(final ValidationLevel validationLevel) {
+        this.validationLevel = validationLevel;
+        return this;
+    }
+
+    public int getMaxNestingDepth() {
+        return this.maxNestingDepth;
+    }
+
+    /**
+     * Sets how deep arrays, dictionaries and marked content sequences may be nested, all of them together. Deeper
+     * content is a violation, found without recursing into it.
+     */
+    public ValidationProperties setMaxNestingDepth(final int maxNestingDepth) {
+        if (maxNestingDepth < 1) {
+            throw new IllegalArgumentException("Maximum nesting depth must be positive: " + maxNestingDepth);
+        }
+        this.maxNestingDepth = maxNestingDepth;
+        return this;
+    }
+
+    public int getMaxViolationsPerPage() {
+        return this.maxViolationsPerPage;
+    }
+
+    /**
+     * Sets how many violations {@link PdfCopValidator#findViolations(java.util.List)} collects in a page (or a
+     * snippet) before giving up on the rest of it.
+     */
+    public ValidationProperties setMaxViolationsPerPage(final int maxViolationsPerPage) {
+        if (maxViolationsPerPage < 1) {
+            throw new IllegalArgumentException("Maximum violations per page must be positive: "
+                    + maxViolationsPerPage);
+        }
+        this.maxViolationsPerPage = maxViolationsPerPage;
+        return this;
+    }
+
+    public int getMaxViolationsPerDocument() {
+        return this.maxViolationsPerDocument;
+    }
+
+    /**
+     * Sets how many violations {@link PdfCop#findViolations(com.itextpdf.kernel.pdf.PdfDocument)} collects in a
+     * document before giving up on the rest of it.
+     */
+    public ValidationProperties setMaxViolationsPerDocument(final int maxViolationsPerDocument) {
+        if (maxViolationsPerDocument < 1) {
+            throw new IllegalArgumentException("Maximum violations per document must be positive: "
+                    + maxViolationsPerDocument);
+        }
+        this.maxViolationsPerDocument = maxViolationsPerDocument;
+        return this;
+    }
+
+    public ValidationBudget getPageBudget() {
+        return this.pageBudget;
+    }
+
+    /**
+     * Sets the budget of each page, or snippet, checked.
+     */
+    public ValidationProperties setPageBudget(final ValidationBudget pageBudget) {
+        this.pageBudget = pageBudget;
+        return this;
+    }
+
+    public ValidationBudget getDocumentBudget() {
+        return this.documentBudget;
+    }
+
+    /**
+     * Sets the budget of each document checked by a {@link PdfCop}, all its pages together.
+     */
+    public ValidationProperties setDocumentBudget(final ValidationBudget documentBudget) {
+        this.documentBudget = documentBudget;
+        return this;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+    Copyright (c) 2023 iText Group NV
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+ */
+package com.itextpdf.pdfcop;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters collected by a {@link PdfCopValidator} over its lifetime. They are updated concurrently by all
+ * threads sharing the validator.
+ */
+public class ValidationStatistics {
+
+    private final LongAdder contentStreams = new LongAdder();
+    private final LongAdder sllParses = new LongAdder();
+    private final LongAdder llFallbacks = new LongAdder();
+    private final LongAdder compatibilitySectionBytes = new LongAdder();
+
+    /**
+     * Number of content streams (pages or snippets) the validator has been asked to check.
+     */
+    public long getContentStreamCount() {
+        return this.contentStreams.sum();
+    }
+
+    /**
+     * Number of parses attempted with SLL prediction, see {@link PredictionStrategy#SLL_THEN_LL}.
+     */
+    public long getSllParseCount() {
+        return this.sllParses.sum();
+    }
+
+    /**
+     * Number of SLL parses which failed and had to be repeated with full LL prediction.
+     */
+    public long getLlFallbackCount() {
+        return this.llFallbacks.sum();
+    }
+
+    /**
+     * Number of bytes in BX/EX compatibility sections, which are skipped without being checked.
+     */
+    public long getCompatibilitySectionByteCount() {
+        return this.compatibilitySectionBytes.sum();
+    }
+
+    void contentStreamChecked() {
+        this.contentStreams.increment();
+    }
+
+    void sllParsed() {
+        this.sllParses.increment();
+    }
+
+    void llFallenBackTo() {
+        this.llFallbacks.increment();
+    }
+
+    void compatibilitySectionsSkipped(final long bytes) {
+        this.compatibilitySectionBytes.add(bytes);
+    }
+
+    @Override
+    public String toString() {
+        return "content streams: " + getContentStreamCount() + ", SLL parses: " + getSllParseCount()
+                + ", LL fallbacks: " + getLlFallbackCount()
+                + ", compatibility section bytes: " + getCompatibilitySectionByteCount();
+    }
+}
@@ -0,0 +1,85 @@
+/*
+    Copyright (c) 2023 iText Group NV
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+ */
+package com.itextpdf.pdfcop;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+
+/**
+ * Collects the violations of a content stream instead of stopping at the first one. Once the maximum number of
+ * violations has been collected, checking the content stream stops with {@link #LIMIT_REACHED}.
+ * <p>
+ * As an error listener it collects the errors of the lexer, which goes on after them. The parser and the
+ * byte-level engine add theirs directly.
+ */
+final class ViolationCollector extends BaseErrorListener {
+
+    /**
+     * Thrown once the maximum number of violations has been collected. It never leaves the validator.
+     */
+    static final ParseCancellationException LIMIT_REACHED = new ParseCancellationException() {
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    };
+
+    private final int maxViolations;
+    private final List<ContentStreamViolation> violations = new ArrayList<>();
+
+    ViolationCollector(final int maxViolations) {
+        this.maxViolations = maxViolations;
+    }
+
+    void add(final ContentStreamViolation violation) {
+        this.violations.add(violation);
+        if (this.violations.size() >= this.maxViolations) {
+            throw LIMIT_REACHED;
+        }
+    }
+
+    List<ContentStreamViolation> getViolations() {
+        return this.violations;
+    }
+
+    @Override
+    public void syntaxError(final Recognizer<?, ?> recognizer, final Object offendingSymbol, final int line,
+            final int charPositionInLine, final String msg, final RecognitionException e) {
+        add(ContentStreamViolation.of(recognizer, offendingSymbol, line, charPositionInLine, () -> msg, e,
+                e != null && recognizer instanceof Parser
+                        ? new ExpectedTokens(recognizer.getATN(), e.getOffendingState(), e.getCtx()) : null));
+    }
+}
@@ -0,0 +1,150 @@
+/*
+    Copyright (c) 2023 iText Group NV
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+ */
+package com.itextpdf.pdfcop;
+
+import java.util.function.Supplier;
+
+import org.antlr.v4.runtime.BufferedTokenStream;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.InputMismatchException;
+import org.antlr.v4.runtime.NoViableAltException;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.Vocabulary;
+import org.antlr.v4.runtime.misc.Interval;
+
+/**
+ * Throws a {@link ContentStreamViolation} on the first syntax error of the parser. The descriptions are those of
+ * {@link DefaultErrorStrategy}; the offending input is copied when the violation is thrown, since the tokens hold
+ * the content being checked, but the expected tokens are only computed when the message is asked for.
+ */
+final class ViolationErrorStrategy extends DefaultErrorStrategy {
+
+    // Characters of the offending input kept for the message
+    private static final int MAX_DISPLAYED_LENGTH = 32;
+
+    @Override
+    protected void reportNoViableAlternative(final Parser recognizer, final NoViableAltException e) {
+        TokenStream tokens = recognizer.getInputStream();
+        Token start = e.getStartToken();
+        String input;
+        if (start.getType() == Token.EOF) {
+            input = "<EOF>";
+        } else if (tokens instanceof BufferedTokenStream) {
+            input = text((BufferedTokenStream) tokens, start.getTokenIndex(), e.getOffendingToken().getTokenIndex());
+        } else {
+            input = "<unknown input>";
+        }
+        String description = "no viable alternative at input " + escapeWSAndQuote(input);
+        throw violation(recognizer, e.getOffendingToken(), () -> description, expectedTokens(e));
+    }
+
+    @Override
+    protected void reportInputMismatch(final Parser recognizer, final InputMismatchException e) {
+        Token token = e.getOffendingToken();
+        String display = getTokenErrorDisplay(token);
+        ExpectedTokens expecting = expectedTokens(e);
+        Vocabulary vocabulary = recognizer.getVocabulary();
+        throw violation(recognizer, token, () -> "mismatched input " + display + " expecting "
+                + expecting.get().toString(vocabulary), expecting);
+    }
+
+    @Override
+    protected void reportUnwantedToken(final Parser recognizer) {
+        if (inErrorRecoveryMode(recognizer)) {
+            return;
+        }
+        beginErrorCondition(recognizer);
+
+        Token token = recognizer.getCurrentToken();
+        String display = getTokenErrorDisplay(token);
+        ExpectedTokens expecting = expectedTokens(recognizer);
+        Vocabulary vocabulary = recognizer.getVocabulary();
+        throw violation(recognizer, token, () -> "extraneous input " + display + " expecting "
+                + expecting.get().toString(vocabulary), expecting);
+    }
+
+    @Override
+    protected void reportMissingToken(final Parser recognizer) {
+        if (inErrorRecoveryMode(recognizer)) {
+            return;
+        }
+        beginErrorCondition(recognizer);
+
+        Token token = recognizer.getCurrentToken();
+        String display = getTokenErrorDisplay(token);
+        ExpectedTokens expecting = expectedTokens(recognizer);
+        Vocabulary vocabulary = recognizer.getVocabulary();
+        throw violation(recognizer, token, () -> "missing " + expecting.get().toString(vocabulary) + " at "
+                + display, expecting);
+    }
+
+    @Override
+    protected String getSymbolText(final Token symbol) {
+        return text(symbol);
+    }
+
+    private static ContentStreamViolation violation(final Parser recognizer, final Token token,
+            final Supplier<String> description, final ExpectedTokens expectedTokens) {
+        return ContentStreamViolation.of(recognizer, token, token.getLine(), token.getCharPositionInLine(),
+                description, null, expectedTokens);
+    }
+
+    private static ExpectedTokens expectedTokens(final RecognitionException e) {
+        return new ExpectedTokens(e.getRecognizer().getATN(), e.getOffendingState(), e.getCtx());
+    }
+
+    // What DefaultErrorStrategy.getExpectedTokens would return
+    private static ExpectedTokens expectedTokens(final Parser recognizer) {
+        return new ExpectedTokens(recognizer.getATN(), recognizer.getState(), recognizer.getContext());
+    }
+
+    private static String text(final BufferedTokenStream tokens, final int start, final int stop) {
+        StringBuilder text = new StringBuilder();
+        for (int i = start; i <= stop && text.length() < MAX_DISPLAYED_LENGTH; i++) {
+            text.append(text(tokens.get(i)));
+        }
+        return text.length() > MAX_DISPLAYED_LENGTH ? text.substring(0, MAX_DISPLAYED_LENGTH) : text.toString();
+    }
+
+    // The text of the token, without reading more of the content than is displayed
+    private static String text(final Token token) {
+        CharStream input = token.getInputStream();
+        int start = token.getStartIndex();
+        if (token.getType() != Token.EOF && input != null && start >= 0
+                && token.getStopIndex() - start >= MAX_DISPLAYED_LENGTH) {
+            return input.getText(Interval.of(start, start + MAX_DISPLAYED_LENGTH - 1));
+        }
+        return token.getText();
+    }
+}
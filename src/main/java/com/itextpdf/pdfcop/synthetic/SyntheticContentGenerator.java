@@ -0,0 +1,590 @@
+/*
+    Copyright (c) 2023 iText Group NV
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+ */
+package com.itextpdf.pdfcop.synthetic;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfStream;
+import com.itextpdf.kernel.pdf.PdfWriter;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates content streams of any size which follow the rules of the PdfStream grammar, or break them in a chosen
+ * way, and wraps them into PDFs. The same properties, seed included, always give the same content.
+ * <p>
+ * Generated content has no {@code w}, {@code M}, {@code i} or {@code Tz} operators and inline image data and
+ * compatibility sections contain no parentheses, which keeps the content of a seed the same as with older grammars.
+ */
+public class SyntheticContentGenerator {
+
+    private static final OperationKind[] KINDS = OperationKind.values();
+    // Operations in a q/Q, BDC/EMC or BT/ET block
+    private static final int MAX_BLOCK_OPERATIONS = 8;
+    private static final int MAX_PATH_SEGMENTS = 6;
+    private static final String[] PAINTING_OPERATORS = { "S", "s", "f", "F", "f*", "B", "B*", "b", "b*", "n" };
+    private static final String[] STRING_CHARACTERS = { "a", "b", "c", "H", "e", "l", "o", " ", "W", "r", "d",
+            "1", "2", "\\(", "\\)", "\\n", "\\\\" };
+    private static final byte[] IMAGE_DATA_BYTES = imageDataBytes();
+
+    private final Random random;
+    // Violations are placed with their own generator so that valid and invalid content only differ by the violation
+    private final Random violationRandom;
+    private final int[] operationWeights = new int[KINDS.length];
+    private final int totalWeight;
+    private final int maxNestingDepth;
+    private final int maxTextArrayLength;
+    private final int inlineImageSize;
+    private final int pageSize;
+    private final int pageCount;
+    private final int contentStreamsPerPage;
+    private final ViolationKind violation;
+
+    // The page being generated
+    private byte[] buffer = new byte[1024];
+    private int length;
+    private final int[] splits;
+    private int splitCount;
+    private int violationOffset;
+    private int violationCandidates;
+
+    public SyntheticContentGenerator(final SyntheticContentProperties properties) {
+        this.random = new Random(properties.getSeed());
+        this.violationRandom = new Random(~properties.getSeed());
+        int total = 0;
+        for (OperationKind kind : KINDS) {
+            this.operationWeights[kind.ordinal()] = properties.getOperationWeight(kind);
+            total += properties.getOperationWeight(kind);
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("At least one operation kind needs a positive weight");
+        }
+        this.totalWeight = total;
+        this.maxNestingDepth = properties.getMaxNestingDepth();
+        this.maxTextArrayLength = properties.getMaxTextArrayLength();
+        this.inlineImageSize = properties.getInlineImageSize();
+        this.pageSize = properties.getPageSize();
+        this.pageCount = properties.getPageCount();
+        this.contentStreamsPerPage = properties.getContentStreamsPerPage();
+        this.violation = properties.getViolation();
+        this.splits = new int[this.contentStreamsPerPage - 1];
+    }
+
+    /**
+     * Returns the content of the next page as a single content stream.
+     */
+    public byte[] nextContentStream() {
+        generatePage();
+        return Arrays.copyOf(this.buffer, this.length);
+    }
+
+    /**
+     * Returns the content streams of the next page.
+     */
+    public List<byte[]> nextPage() {
+        generatePage();
+        List<byte[]> contentStreams = new ArrayList<>(this.splitCount + 1);
+        int start = 0;
+        for (int i = 0; i < this.splitCount; i++) {
+            contentStreams.add(Arrays.copyOfRange(this.buffer, start, this.splits[i]));
+            start = this.splits[i];
+        }
+        contentStreams.add(Arrays.copyOfRange(this.buffer, start, this.length));
+        return contentStreams;
+    }
+
+    /**
+     * Writes a PDF with the configured number of pages. The output stream is closed.
+     */
+    public void writePdf(final OutputStream out) throws IOException {
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfWriter(out))) {
+            for (int pageNumber = 1; pageNumber <= this.pageCount; pageNumber++) {
+                List<byte[]> contentStreams = nextPage();
+                PdfPage page = pdfDocument.addNewPage();
+                for (int i = 0; i < contentStreams.size(); i++) {
+                    PdfStream contentStream = i == 0 && page.getContentStreamCount() > 0
+                            ? page.getFirstContentStream() : page.newContentStreamAfter();
+                    contentStream.setData(contentStreams.get(i));
+                }
+            }
+        }
+    }
+
+    public void writePdf(final File pdf) throws IOException {
+        writePdf(new FileOutputStream(pdf));
+    }
+
+    private void generatePage() {
+        this.length = 0;
+        this.splitCount = 0;
+        this.violationOffset = 0;
+        this.violationCandidates = 0;
+
+        while (this.length < this.pageSize) {
+            boundary(false);
+            operation(false, 0);
+        }
+        boundary(false);
+
+        if (this.violation != null) {
+            insertViolation();
+        }
+    }
+
+    // Between two operations, in a text object or not
+    private void boundary(final boolean inTextObject) {
+        if (this.splitCount < this.splits.length
+                && this.length >= (long) (this.splitCount + 1) * this.pageSize / this.contentStreamsPerPage) {
+            this.splits[this.splitCount++] = this.length;
+        }
+
+        if (this.violation == ViolationKind.WRONG_OPERANDS || this.violation == ViolationKind.UNKNOWN_OPERATOR
+                || (this.violation == ViolationKind.MISPLACED_OPERATOR && ! inTextObject)) {
+            // Reservoir sampling of one boundary
+            this.violationCandidates++;
+            if (this.violationRandom.nextInt(this.violationCandidates) == 0) {
+                this.violationOffset = this.length;
+            }
+        }
+    }
+
+    private void insertViolation() {
+        String text;
+        int offset = this.violationOffset;
+        switch (this.violation) {
+            case WRONG_OPERANDS:
+                text = "/Name Tj\n";
+                break;
+            case UNKNOWN_OPERATOR:
+                text = "xyz\n";
+                break;
+            case MISPLACED_OPERATOR:
+                text = "ET\n";
+                break;
+            case UNTERMINATED_STRING:
+                text = "(unterminated Tj\n";
+                offset = this.length;
+                break;
+            default:
+                text = "12.50 13.50";
+                offset = this.length;
+        }
+
+        int end = this.length;
+        this.length = offset;
+        byte[] tail = Arrays.copyOfRange(this.buffer, offset, end);
+        write(text);
+        write(tail);
+        for (int i = 0; i < this.splitCount; i++) {
+            if (this.splits[i] > offset) {
+                this.splits[i] += text.length();
+            }
+        }
+    }
+
+    private void operation(final boolean inTextObject, final int depth) {
+        boolean nest = depth < this.maxNestingDepth;
+        switch (nextKind()) {
+            case PATH:
+                if (inTextObject) {
+                    textOperation();
+                } else {
+                    path();
+                }
+                break;
+            case TEXT:
+                if (inTextObject) {
+                    textOperation();
+                } else if (nest) {
+                    write("BT\n/F");
+                    write(1 + this.random.nextInt(9));
+                    write(' ');
+                    number();
+                    write(" Tf\n");
+                    block(true, depth + 1);
+                    write("ET\n");
+                } else {
+                    textState();
+                }
+                break;
+            case COLOUR:
+                colour();
+                break;
+            case GRAPHICS_STATE:
+                graphicsState();
+                break;
+            case TRANSFORMATION:
+                numbers(6);
+                write(inTextObject ? " Tm\n" : " cm\n");
+                break;
+            case SAVE_RESTORE:
+                if (nest) {
+                    write("q\n");
+                    block(inTextObject, depth + 1);
+                    write("Q\n");
+                } else {
+                    write("q Q\n");
+                }
+                break;
+            case MARKED_CONTENT:
+                markedContent(depth);
+                break;
+            case XOBJECT:
+                if (inTextObject) {
+                    colour();
+                } else {
+                    boolean form = this.random.nextBoolean();
+                    write(form ? "/Fm" : "/Sh");
+                    write(1 + this.random.nextInt(99));
+                    write(form ? " Do\n" : " sh\n");
+                }
+                break;
+            case INLINE_IMAGE:
+                if (inTextObject) {
+                    colour();
+                } else {
+                    inlineImage();
+                }
+                break;
+            case COMPATIBILITY:
+                write("BX /Fancy ");
+                number();
+                write(" <0A1B> newoperator EX\n");
+                break;
+            default:
+                write("% comment ");
+                write(this.random.nextInt(1000));
+                write('\n');
+        }
+    }
+
+    private void block(final boolean inTextObject, final int depth) {
+        int operations = 1 + this.random.nextInt(MAX_BLOCK_OPERATIONS);
+        for (int i = 0; i < operations; i++) {
+            boundary(inTextObject);
+            operation(inTextObject, depth);
+        }
+        boundary(inTextObject);
+    }
+
+    private OperationKind nextKind() {
+        int pick = this.random.nextInt(this.totalWeight);
+        for (OperationKind kind : KINDS) {
+            pick -= this.operationWeights[kind.ordinal()];
+            if (pick < 0) {
+                return kind;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private void path() {
+        numbers(2);
+        write(" m\n");
+        int segments = this.random.nextInt(MAX_PATH_SEGMENTS + 1);
+        for (int i = 0; i < segments; i++) {
+            switch (this.random.nextInt(5)) {
+                case 0:
+                    numbers(2);
+                    write(" l\n");
+                    break;
+                case 1:
+                    numbers(6);
+                    write(" c\n");
+                    break;
+                case 2:
+                    numbers(4);
+                    write(this.random.nextBoolean() ? " v\n" : " y\n");
+                    break;
+                case 3:
+                    numbers(4);
+                    write(" re\n");
+                    break;
+                default:
+                    write("h\n");
+            }
+        }
+        if (this.random.nextInt(4) == 0) {
+            write(this.random.nextBoolean() ? "W n\n" : "W* n\n");
+        } else {
+            write(PAINTING_OPERATORS[this.random.nextInt(PAINTING_OPERATORS.length)]);
+            write('\n');
+        }
+    }
+
+    private void textOperation() {
+        switch (this.random.nextInt(8)) {
+            case 0:
+                string();
+                write(" Tj\n");
+                break;
+            case 1:
+                textArray();
+                break;
+            case 2:
+                string();
+                write(" '\n");
+                break;
+            case 3:
+                numbers(2);
+                write(' ');
+                string();
+                write(" \"\n");
+                break;
+            case 4:
+                numbers(2);
+                write(this.random.nextBoolean() ? " Td\n" : " TD\n");
+                break;
+            case 5:
+                write("T*\n");
+                break;
+            default:
+                textState();
+        }
+    }
+
+    private void textArray() {
+        write('[');
+        int elements = 1 + this.random.nextInt(this.maxTextArrayLength);
+        for (int i = 0; i < elements; i++) {
+            if (i > 0) {
+                write(' ');
+            }
+            if (this.random.nextInt(3) == 0) {
+                number();
+            } else {
+                string();
+            }
+        }
+        write("] TJ\n");
+    }
+
+    private void textState() {
+        switch (this.random.nextInt(6)) {
+            case 0:
+                number();
+                write(" Tc\n");
+                break;
+            case 1:
+                number();
+                write(" Tw\n");
+                break;
+            case 2:
+                number();
+                write(" TL\n");
+                break;
+            case 3:
+                number();
+                write(" Ts\n");
+                break;
+            case 4:
+                write("/F");
+                write(1 + this.random.nextInt(9));
+                write(' ');
+                number();
+                write(" Tf\n");
+                break;
+            default:
+                write(this.random.nextInt(8));
+                write(" Tr\n");
+        }
+    }
+
+    private void colour() {
+        boolean stroke = this.random.nextBoolean();
+        switch (this.random.nextInt(6)) {
+            case 0:
+                write(this.random.nextBoolean() ? "/DeviceRGB" : "/Pattern");
+                write(stroke ? " CS\n" : " cs\n");
+                break;
+            case 1:
+                number();
+                write(stroke ? " G\n" : " g\n");
+                break;
+            case 2:
+                numbers(3);
+                write(stroke ? " RG\n" : " rg\n");
+                break;
+            case 3:
+                numbers(4);
+                write(stroke ? " K\n" : " k\n");
+                break;
+            case 4:
+                numbers(1 + this.random.nextInt(4));
+                write(stroke ? " SC\n" : " sc\n");
+                break;
+            default:
+                numbers(1 + this.random.nextInt(3));
+                write(stroke ? " /P1 SCN\n" : " /P1 scn\n");
+        }
+    }
+
+    private void graphicsState() {
+        switch (this.random.nextInt(5)) {
+            case 0:
+                write("/GS");
+                write(1 + this.random.nextInt(9));
+                write(" gs\n");
+                break;
+            case 1:
+                write(this.random.nextInt(3));
+                write(" J\n");
+                break;
+            case 2:
+                write(this.random.nextInt(3));
+                write(" j\n");
+                break;
+            case 3:
+                write('[');
+                numbers(this.random.nextInt(3));
+                write("] ");
+                number();
+                write(" d\n");
+                break;
+            default:
+                write("/Perceptual ri\n");
+        }
+    }
+
+    private void markedContent(final int depth) {
+        if (depth >= this.maxNestingDepth || this.random.nextInt(4) == 0) {
+            write(this.random.nextBoolean() ? "/Artifact MP\n" : "/Span <</ActualText (x)>> DP\n");
+            return;
+        }
+
+        switch (this.random.nextInt(3)) {
+            case 0:
+                write("/Artifact BMC\n");
+                break;
+            case 1:
+                write("/P <</MCID ");
+                write(10 + this.random.nextInt(1000));
+                write(">> BDC\n");
+                break;
+            default:
+                write("/OC /MC1 BDC\n");
+        }
+        // Marked content sequences hold content stream level operations, even within a text object
+        block(false, depth + 1);
+        write("EMC\n");
+    }
+
+    private void inlineImage() {
+        // One byte per sample, one row of samples
+        write("BI /W ");
+        write(this.inlineImageSize);
+        write(this.inlineImageSize < 10 ? ".0 /H 1.0 /BPC 8 /CS /G ID " : " /H 1.0 /BPC 8 /CS /G ID ");
+        ensureCapacity(this.inlineImageSize);
+        for (int i = 0; i < this.inlineImageSize; i++) {
+            this.buffer[this.length++] = IMAGE_DATA_BYTES[this.random.nextInt(IMAGE_DATA_BYTES.length)];
+        }
+        write(" EI\n");
+    }
+
+    private void string() {
+        write('(');
+        int characters = this.random.nextInt(12);
+        for (int i = 0; i < characters; i++) {
+            write(STRING_CHARACTERS[this.random.nextInt(STRING_CHARACTERS.length)]);
+        }
+        write(')');
+    }
+
+    private void numbers(final int count) {
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                write(' ');
+            }
+            number();
+        }
+    }
+
+    // A real number with two decimals, never a single digit
+    private void number() {
+        if (this.random.nextInt(8) == 0) {
+            write('-');
+        }
+        write(this.random.nextInt(1000));
+        write('.');
+        int decimals = this.random.nextInt(100);
+        write((char) ('0' + decimals / 10));
+        write((char) ('0' + decimals % 10));
+    }
+
+    private void write(final int value) {
+        if (value >= 10) {
+            write(value / 10);
+        }
+        write((char) ('0' + value % 10));
+    }
+
+    private void write(final char c) {
+        ensureCapacity(1);
+        this.buffer[this.length++] = (byte) c;
+    }
+
+    private void write(final String text) {
+        ensureCapacity(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            this.buffer[this.length++] = (byte) text.charAt(i);
+        }
+    }
+
+    private void write(final byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, this.buffer, this.length, bytes.length);
+        this.length += bytes.length;
+    }
+
+    private void ensureCapacity(final int extra) {
+        if (this.length + extra > this.buffer.length) {
+            this.buffer = Arrays.copyOf(this.buffer, Math.max(this.length + extra, this.buffer.length * 2));
+        }
+    }
+
+    // Any byte except 'E', which could end the data early, and parentheses
+    private static byte[] imageDataBytes() {
+        byte[] bytes = new byte[256 - 3];
+        int count = 0;
+        for (int b = 0; b < 256; b++) {
+            if (b != 'E' && b != '(' && b != ')') {
+                bytes[count++] = (byte) b;
+            }
+        }
+        return bytes;
+    }
+}
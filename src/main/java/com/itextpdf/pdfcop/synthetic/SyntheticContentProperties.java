@@ -0,0 +1,161 @@
+/*
+    Copyright (c) 2023 iText Group NV
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+ */
+package com.itextpdf.pdfcop.synthetic;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Settings of a {@link SyntheticContentGenerator}. The generator copies them when it is created.
+ */
+public class SyntheticContentProperties {
+
+    private long seed = 0;
+    private final Map<OperationKind, Integer> operationWeights = new EnumMap<>(OperationKind.class);
+    private int maxNestingDepth = 4;
+    private int maxTextArrayLength = 8;
+    private int inlineImageSize = 64;
+    private int pageSize = 16 * 1024;
+    private int pageCount = 1;
+    private int contentStreamsPerPage = 1;
+    private ViolationKind violation = null;
+
+    public SyntheticContentProperties() {
+        for (OperationKind kind : OperationKind.values()) {
+            this.operationWeights.put(kind, 1);
+        }
+        this.operationWeights.put(OperationKind.PATH, 4);
+        this.operationWeights.put(OperationKind.TEXT, 4);
+        this.operationWeights.put(OperationKind.COLOUR, 2);
+    }
+
+    public long getSeed() {
+        return this.seed;
+    }
+
+    public SyntheticContentProperties setSeed(final long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public int getOperationWeight(final OperationKind kind) {
+        return this.operationWeights.get(kind);
+    }
+
+    /**
+     * Sets how often operations of a kind are picked, relative to the other kinds. A weight of zero leaves the
+     * kind out.
+     */
+    public SyntheticContentProperties setOperationWeight(final OperationKind kind, final int weight) {
+        if (weight < 0) {
+            throw new IllegalArgumentException("Weight of " + kind + " must not be negative: " + weight);
+        }
+        this.operationWeights.put(kind, weight);
+        return this;
+    }
+
+    public int getMaxNestingDepth() {
+        return this.maxNestingDepth;
+    }
+
+    /**
+     * Sets how deep q/Q, BDC/EMC and BT/ET may be nested into one another.
+     */
+    public SyntheticContentProperties setMaxNestingDepth(final int maxNestingDepth) {
+        this.maxNestingDepth = maxNestingDepth;
+        return this;
+    }
+
+    public int getMaxTextArrayLength() {
+        return this.maxTextArrayLength;
+    }
+
+    public SyntheticContentProperties setMaxTextArrayLength(final int maxTextArrayLength) {
+        this.maxTextArrayLength = Math.max(maxTextArrayLength, 1);
+        return this;
+    }
+
+    public int getInlineImageSize() {
+        return this.inlineImageSize;
+    }
+
+    /**
+     * Sets the number of bytes of data of every inline image.
+     */
+    public SyntheticContentProperties setInlineImageSize(final int inlineImageSize) {
+        this.inlineImageSize = Math.max(inlineImageSize, 1);
+        return this;
+    }
+
+    public int getPageSize() {
+        return this.pageSize;
+    }
+
+    /**
+     * Sets the number of bytes of content of every page. Generation stops at the first operation ending past it.
+     */
+    public SyntheticContentProperties setPageSize(final int pageSize) {
+        this.pageSize = pageSize;
+        return this;
+    }
+
+    public int getPageCount() {
+        return this.pageCount;
+    }
+
+    public SyntheticContentProperties setPageCount(final int pageCount) {
+        this.pageCount = pageCount;
+        return this;
+    }
+
+    public int getContentStreamsPerPage() {
+        return this.contentStreamsPerPage;
+    }
+
+    /**
+     * Sets into how many content streams the content of a page is split, between operations.
+     */
+    public SyntheticContentProperties setContentStreamsPerPage(final int contentStreamsPerPage) {
+        this.contentStreamsPerPage = Math.max(contentStreamsPerPage, 1);
+        return this;
+    }
+
+    public ViolationKind getViolation() {
+        return this.violation;
+    }
+
+    /**
+     * Makes every page break the rules in the given way, or follow them when {@code null}.
+     */
+    public SyntheticContentProperties setViolation(final ViolationKind violation) {
+        this.violation = violation;
+        return this;
+    }
+}
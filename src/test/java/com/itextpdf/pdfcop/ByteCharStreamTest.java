@@ -0,0 +1,129 @@
+/*
+    Copyright (c) 2023 iText Group NV
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+ */
+package com.itextpdf.pdfcop;
+
+import com.itextpdf.antlr.PdfStreamLexer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.misc.Interval;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ByteCharStreamTest {
+
+    private static final byte[] INLINE_IMAGE = {
+            'B', 'I', ' ', '/', 'C', 'S', ' ', '/', 'G', ' ', 'I', 'D', ' ',
+            (byte) 0xE9, (byte) 0x80, 0x00, (byte) 0xFF,
+            ' ', 'E', 'I'
+    };
+
+    @Test
+    public void bytesMapOneToOneOnSymbols() {
+        ByteCharStream stream = ByteCharStream.fromBytes(new byte[] {'q', (byte) 0x80, (byte) 0xFF, 0x00});
+
+        Assert.assertEquals(4, stream.size());
+        Assert.assertEquals('q', stream.LA(1));
+        Assert.assertEquals(0x80, stream.LA(2));
+        Assert.assertEquals(0xFF, stream.LA(3));
+        Assert.assertEquals(0x00, stream.LA(4));
+        Assert.assertEquals(IntStream.EOF, stream.LA(5));
+
+        stream.consume();
+        Assert.assertEquals('q', stream.LA(-1));
+        stream.seek(4);
+        Assert.assertEquals(IntStream.EOF, stream.LA(1));
+    }
+
+    @Test
+    public void offsetAndLengthAreHonoured() {
+        byte[] bytes = "xx q Q yy".getBytes(StandardCharsets.ISO_8859_1);
+        ByteCharStream stream = ByteCharStream.fromBytes(bytes, 3, 3);
+
+        Assert.assertEquals(3, stream.size());
+        Assert.assertEquals("q Q", stream.getText(Interval.of(0, 2)));
+        Assert.assertEquals("Q", stream.getText(Interval.of(2, 10)));
+    }
+
+    @Test
+    public void directBufferIsReadFromItsPosition() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(INLINE_IMAGE.length + 2);
+        buffer.put((byte) 'Q').put((byte) ' ').put(INLINE_IMAGE).flip();
+        buffer.position(2);
+        ByteCharStream stream = ByteCharStream.fromBuffer(buffer);
+
+        Assert.assertEquals(INLINE_IMAGE.length, stream.size());
+        Assert.assertEquals('B', stream.LA(1));
+        Assert.assertEquals(2, buffer.position());
+    }
+
+    @Test
+    public void binaryInlineImageDataIsKeptIntact() {
+        PdfStreamLexer lexer = new PdfStreamLexer(ByteCharStream.fromBytes(INLINE_IMAGE));
+        Token token = lexer.nextToken();
+        while (token.getType() != PdfStreamLexer.INLINE_DATA) {
+            Assert.assertNotEquals(Token.EOF, token.getType());
+            token = lexer.nextToken();
+        }
+
+        Assert.assertEquals("ID é\u0080\u0000ÿ EI", token.getText());
+    }
+
+    @Test
+    public void highBytesAreLexedAsThemselves() {
+        byte[] bytes = {'(', (byte) 0xE9, 0x7F, (byte) 0x80, ')', ' ', '/', 'N', (byte) 0xFF};
+        PdfStreamLexer lexer = new PdfStreamLexer(ByteCharStream.fromBytes(bytes));
+
+        Token token = lexer.nextToken();
+        Assert.assertEquals(PdfStreamLexer.STRING, token.getType());
+        Assert.assertEquals("(é\u007F\u0080)", token.getText());
+        token = lexer.nextToken();
+        Assert.assertEquals(PdfStreamLexer.PDF_NAME, token.getType());
+        Assert.assertEquals("/Nÿ", token.getText());
+        Assert.assertEquals(Token.EOF, lexer.nextToken().getType());
+    }
+
+    @Test
+    public void snippetsAreAcceptedAsBytes() {
+        PdfCop pdfCop = new PdfCop();
+
+        Assert.assertTrue(pdfCop.doesSnippetFollowTheRules(INLINE_IMAGE));
+        Assert.assertTrue(pdfCop.doesSnippetFollowTheRules(ByteBuffer.wrap(INLINE_IMAGE)));
+    }
+
+    @Test(expected = ParseCancellationException.class)
+    public void invalidBytesAreRejected() {
+        new PdfCop().doesSnippetFollowTheRules("BT ET ET".getBytes(StandardCharsets.ISO_8859_1));
+    }
+}
@@ -0,0 +1,132 @@
+/*
+    Copyright (c) 2023 iText Group NV
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+ */
+package com.itextpdf.pdfcop;
+
+import com.itextpdf.antlr.PdfStreamLexer;
+import com.itextpdf.antlr.PdfStreamParser;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.misc.Interval;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MultiStreamCharStreamTest {
+
+    @Test
+    public void boundariesAreVirtualWhiteSpace() {
+        MultiStreamCharStream stream = streams("q", "", "Q");
+
+        Assert.assertEquals(4, stream.size());
+        Assert.assertEquals("q\n\nQ", stream.getText(Interval.of(0, 3)));
+        Assert.assertEquals('Q', stream.LA(4));
+        Assert.assertEquals(IntStream.EOF, stream.LA(5));
+    }
+
+    @Test
+    public void indicesMapOntoStreamAndOffset() {
+        MultiStreamCharStream stream = streams("0 g", "", "BT ET");
+
+        Assert.assertEquals(3, stream.getStreamCount());
+        Assert.assertEquals(0, stream.getStreamIndex(2));
+        Assert.assertEquals(2, stream.getStreamOffset(2));
+        // boundary after the first stream
+        Assert.assertEquals(0, stream.getStreamIndex(3));
+        Assert.assertEquals(3, stream.getStreamOffset(3));
+        Assert.assertEquals(1, stream.getStreamIndex(4));
+        Assert.assertEquals(0, stream.getStreamOffset(4));
+        Assert.assertEquals(2, stream.getStreamIndex(8));
+        Assert.assertEquals(3, stream.getStreamOffset(8));
+    }
+
+    @Test
+    public void consumeAndSeekAcrossStreams() {
+        MultiStreamCharStream stream = streams("ab", "cd");
+
+        StringBuilder consumed = new StringBuilder();
+        while (stream.LA(1) != IntStream.EOF) {
+            consumed.append((char) stream.LA(1));
+            stream.consume();
+        }
+        Assert.assertEquals("ab\ncd", consumed.toString());
+
+        stream.seek(1);
+        Assert.assertEquals('b', stream.LA(1));
+        Assert.assertEquals('c', stream.LA(3));
+        Assert.assertEquals('a', stream.LA(-1));
+    }
+
+    @Test
+    public void streamsAreNotGluedTogether() {
+        // Concatenated without separator this would be the single name /Fm1Do
+        Assert.assertTrue(parse(streams("q /Fm1", "Do Q")));
+    }
+
+    @Test
+    public void trailingCommentEndsWithItsStream() {
+        Assert.assertTrue(parse(streams("q %comment", "Q")));
+    }
+
+    @Test
+    public void errorsReportTheirContentStream() {
+        try {
+            parse(streams("q Q", "BT ET ET"));
+            Assert.fail("Expected a syntax error");
+        } catch (ParseCancellationException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().endsWith("(content stream 1, offset 6)"));
+        }
+    }
+
+    private static boolean parse(MultiStreamCharStream stream) {
+        PdfStreamLexer streamLexer = new PdfStreamLexer(stream);
+        streamLexer.removeErrorListeners();
+        streamLexer.addErrorListener(ThrowingErrorListener.INSTANCE);
+
+        PdfStreamParser streamParser = new PdfStreamParser(new CommonTokenStream(streamLexer));
+        streamParser.removeErrorListeners();
+        streamParser.addErrorListener(ThrowingErrorListener.INSTANCE);
+
+        streamParser.content_stream();
+        return true;
+    }
+
+    private static MultiStreamCharStream streams(String... contents) {
+        List<byte[]> streams = new ArrayList<>();
+        for (String content : contents) {
+            streams.add(content.getBytes(StandardCharsets.ISO_8859_1));
+        }
+        return MultiStreamCharStream.fromStreams(streams);
+    }
+}
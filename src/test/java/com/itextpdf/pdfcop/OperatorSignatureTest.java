@@ -0,0 +1,85 @@
+/*
+    Copyright (c) 2023 iText Group NV
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+ */
+package com.itextpdf.pdfcop;
+
+import com.itextpdf.antlr.PdfStreamLexer;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.antlr.v4.runtime.Vocabulary;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OperatorSignatureTest {
+
+    private static final Set<String> NOT_OPERATORS = new HashSet<>(Arrays.asList(
+            "'true'", "'false'", "'null'", "'['", "']'", "'<<'", "'>>'",
+            // Inline image data delimiters and Type 3 glyph operators, which the grammar doesn't accept
+            "'ID'", "'EI'", "'d0'", "'d1'"));
+
+    @Test
+    public void everyOperatorOfTheGrammarHasASignature() {
+        Vocabulary vocabulary = PdfStreamLexer.VOCABULARY;
+        for (int type = 1; type <= vocabulary.getMaxTokenType(); type++) {
+            String literal = vocabulary.getLiteralName(type);
+            if (literal != null && ! NOT_OPERATORS.contains(literal)) {
+                Assert.assertNotNull(literal, OperatorSignature.of(type));
+            }
+        }
+    }
+
+    @Test
+    public void unknownTokensHaveNoSignature() {
+        Assert.assertNull(OperatorSignature.of(PdfStreamLexer.NUMBER));
+        Assert.assertNull(OperatorSignature.of(PdfStreamLexer.TYPE3_SET_WIDTH_AND_SHAPE));
+        Assert.assertNull(OperatorSignature.of(-1));
+        Assert.assertNull(OperatorSignature.of(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void operandsAreMatchedAgainstThePatterns() {
+        OperatorSignature scn = OperatorSignature.of(PdfStreamLexer.NON_STROKE_COLOUR_DEVICE_EXTRA);
+        int number = OperatorSignature.NUMBER;
+        int name = OperatorSignature.NAME;
+
+        Assert.assertTrue(scn.accepts(new int[] { number, number, number }, 3));
+        Assert.assertTrue(scn.accepts(new int[] { number, name }, 2));
+        Assert.assertFalse(scn.accepts(new int[] { name }, 1));
+        Assert.assertFalse(scn.accepts(new int[] {}, 0));
+        Assert.assertFalse(scn.accepts(new int[] { number, name, number }, 3));
+
+        OperatorSignature tf = OperatorSignature.of(PdfStreamLexer.TEXT_FONT_AND_SIZE);
+        Assert.assertTrue(tf.accepts(new int[] { name, number, 0 }, 2));
+        Assert.assertFalse(tf.accepts(new int[] { number, name }, 2));
+        Assert.assertEquals(OperatorSignature.ANYWHERE, tf.getContext());
+    }
+}
@@ -0,0 +1,612 @@
+/*
+    Copyright (c) 2023 iText Group NV
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+ */
+package com.itextpdf.pdfcop;
+
+import com.itextpdf.antlr.PdfStreamLexer;
+import com.itextpdf.antlr.PdfStreamParser;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfIndirectReference;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PdfCopValidatorTest {
+
+    private static final String VALID = "q BT /F1 12 Tf (Hello World) Tj ET Q";
+    private static final String INVALID = "BT ET ET";
+
+    @Test
+    public void validatorIsReusedAfterViolations() {
+        PdfCopValidator validator = new PdfCopValidator();
+
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(validator.validate(VALID));
+            Assert.assertFalse(isValid(validator, INVALID));
+            Assert.assertTrue(validator.validate(VALID.getBytes(StandardCharsets.ISO_8859_1)));
+        }
+    }
+
+    @Test
+    public void violationsAreReportedAfterReuse() {
+        PdfCopValidator validator = new PdfCopValidator();
+        validator.validate(VALID);
+
+        try {
+            validator.validate(INVALID);
+            Assert.fail("Expected a syntax error");
+        } catch (ParseCancellationException e) {
+            Assert.assertEquals("line 1:6 extraneous input 'ET' expecting <EOF>", e.getMessage());
+        }
+    }
+
+    @Test
+    public void validatorIsSharedBetweenThreads() throws Exception {
+        PdfCopValidator validator = new PdfCopValidator();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String content = i % 3 == 0 ? INVALID : VALID;
+                results.add(executor.submit((Callable<Boolean>) () -> isValid(validator, content)));
+            }
+
+            for (int i = 0; i < results.size(); i++) {
+                Assert.assertEquals(i % 3 != 0, results.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void parseTreeIsBuiltOnRequest() {
+        PdfCopValidator validator = new PdfCopValidator();
+        validator.validate(VALID);
+
+        PdfStreamParser.Content_streamContext context = validator.parse(CharStreams.fromString(VALID));
+
+        // content_stream_level and EOF
+        Assert.assertEquals(2, context.getChildCount());
+        Assert.assertEquals(3, context.content_stream_level().getChildCount());
+        Assert.assertNotNull(context.content_stream_level().textObject(0).END_TEXT());
+    }
+
+    @Test
+    public void parseTreeIsBuiltAfterSllParse() {
+        PdfCopValidator validator = new PdfCopValidator(new ValidationProperties()
+                .setPredictionStrategy(PredictionStrategy.SLL_THEN_LL));
+
+        PdfStreamParser.Content_streamContext context = validator.parse(CharStreams.fromString(VALID));
+
+        Assert.assertEquals(3, context.content_stream_level().getChildCount());
+    }
+
+    @Test
+    public void compatibilitySectionsAreCounted() {
+        String content = "q BX /V (EX) BX op EX EX Q BX EX";
+        for (ValidationEngine engine : ValidationEngine.values()) {
+            PdfCopValidator validator = new PdfCopValidator(new ValidationProperties().setValidationEngine(engine));
+
+            Assert.assertTrue(validator.validate(content));
+            Assert.assertTrue(validator.validate(content));
+
+            Assert.assertEquals(engine.name(), 2 * (22 + 5),
+                    validator.getStatistics().getCompatibilitySectionByteCount());
+        }
+    }
+
+    @Test
+    public void deepNestingIsRejectedWithoutRecursing() {
+        StringBuilder arrays = new StringBuilder();
+        StringBuilder markedContent = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            arrays.append('[');
+            markedContent.append("/P BMC ");
+        }
+        for (ValidationEngine engine : ValidationEngine.values()) {
+            for (PredictionStrategy strategy : PredictionStrategy.values()) {
+                PdfCopValidator validator = new PdfCopValidator(new ValidationProperties()
+                        .setValidationEngine(engine).setPredictionStrategy(strategy));
+
+                assertNestedTooDeep(validator, "/Span <</A " + arrays);
+                assertNestedTooDeep(validator, markedContent.toString());
+            }
+        }
+    }
+
+    @Test
+    public void nestingDepthIsConfigurable() {
+        String content = "/A BMC /P <</K [1]>> DP EMC";
+        for (ValidationEngine engine : ValidationEngine.values()) {
+            PdfCopValidator validator = new PdfCopValidator(new ValidationProperties()
+                    .setValidationEngine(engine).setMaxNestingDepth(3));
+            PdfCopValidator shallowValidator = new PdfCopValidator(new ValidationProperties()
+                    .setValidationEngine(engine).setMaxNestingDepth(2));
+
+            Assert.assertTrue(engine.name(), validator.validate(content));
+            assertNestedTooDeep(shallowValidator, content);
+            Assert.assertTrue(engine.name(), shallowValidator.validate(VALID));
+        }
+    }
+
+    @Test
+    public void violationDescribesTheOffendingToken() {
+        ContentStreamViolation violation = violation(new PdfCopValidator(), INVALID);
+
+        Assert.assertEquals(PdfStreamLexer.END_TEXT, violation.getTokenType());
+        Assert.assertEquals(6, violation.getOffset());
+        Assert.assertEquals(1, violation.getLine());
+        Assert.assertEquals(6, violation.getCharPositionInLine());
+        Assert.assertEquals(0, violation.getStreamIndex());
+        Assert.assertTrue(violation.getExpectedTokens().contains(Token.EOF));
+        Assert.assertEquals(Collections.singletonList("content_stream"), violation.getRuleStack());
+        Assert.assertEquals(0, violation.getPageNumber());
+        Assert.assertEquals(0, violation.getStackTrace().length);
+    }
+
+    @Test
+    public void violationTellsTheRulesBeingMatched() {
+        ContentStreamViolation violation = violation(new PdfCopValidator(), "BT /F1 12 Tf 1 Tj ET");
+
+        Assert.assertEquals(Arrays.asList("textObject", "content_stream_level", "content_stream"),
+                violation.getRuleStack());
+        Assert.assertTrue(violation.getExpectedTokens().contains(PdfStreamLexer.STRING));
+        Assert.assertFalse(violation.getExpectedTokens().contains(PdfStreamLexer.END_TEXT));
+    }
+
+    @Test
+    public void byteLevelViolationDescribesTheOffendingToken() {
+        ContentStreamViolation violation = violation(new PdfCopValidator(new ValidationProperties()
+                .setValidationEngine(ValidationEngine.BYTE_LEVEL)), INVALID);
+
+        Assert.assertEquals("offset 6 unexpected operator at 'ET'", violation.getMessage());
+        Assert.assertEquals(PdfStreamLexer.END_TEXT, violation.getTokenType());
+        Assert.assertEquals(6, violation.getOffset());
+        Assert.assertEquals(-1, violation.getLine());
+        Assert.assertTrue(violation.getExpectedTokens().isNil());
+        Assert.assertTrue(violation.getRuleStack().isEmpty());
+        Assert.assertEquals(0, violation.getStackTrace().length);
+    }
+
+    @Test
+    public void violationMessageOutlivesTheContent() {
+        byte[] content = INVALID.getBytes(StandardCharsets.ISO_8859_1);
+        ContentStreamViolation violation = null;
+        try {
+            new PdfCopValidator().validate(content);
+        } catch (ContentStreamViolation e) {
+            violation = e;
+        }
+        Assert.assertNotNull(violation);
+        Arrays.fill(content, (byte) ' ');
+
+        Assert.assertEquals("line 1:6 extraneous input 'ET' expecting <EOF>", violation.getMessage());
+    }
+
+    @Test
+    public void violationMessageShowsTheStartOfTheOffendingToken() {
+        char[] text = new char[10000];
+        Arrays.fill(text, 'a');
+        ContentStreamViolation violation = violation(new PdfCopValidator(), "BT ET (" + new String(text) + ") ET");
+
+        Assert.assertTrue(violation.getMessage(),
+                violation.getMessage().startsWith("line 1:6 mismatched input '(aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa' "));
+    }
+
+    @Test
+    public void violationIsSerializable() throws Exception {
+        ContentStreamViolation violation = violation(new PdfCopValidator(), "BT /F1 12 Tf 1 Tj ET");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(violation);
+        }
+        ContentStreamViolation copy;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (ContentStreamViolation) in.readObject();
+        }
+
+        Assert.assertEquals(violation.getMessage(), copy.getMessage());
+        Assert.assertEquals(violation.getRuleStack(), copy.getRuleStack());
+        Assert.assertEquals(violation.getOffset(), copy.getOffset());
+    }
+
+    @Test
+    public void violationTellsThePage() throws IOException {
+        ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfWriter(pdf))) {
+            pdfDocument.addNewPage().getFirstContentStream().setData(VALID.getBytes(StandardCharsets.ISO_8859_1));
+            pdfDocument.addNewPage().getFirstContentStream().setData(INVALID.getBytes(StandardCharsets.ISO_8859_1));
+        }
+
+        try (PdfCop parallel = new PdfCop(2)) {
+            for (PdfCop pdfCop : new PdfCop[] { new PdfCop(), parallel }) {
+                try {
+                    pdfCop.isDocumentFollowingTheRules(new ByteArrayInputStream(pdf.toByteArray()));
+                    Assert.fail("Expected a violation");
+                } catch (ContentStreamViolation e) {
+                    Assert.assertEquals(2, e.getPageNumber());
+                    Assert.assertTrue(e.getMessage(), e.getMessage().endsWith(" on page 2"));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void findViolationsGoesOnAfterAViolation() {
+        String content = "1 0 0 1 0 0 cm 5 ri q Q /F1 12 Tf 5 Tj q Q BT ET ET";
+        for (ValidationEngine engine : ValidationEngine.values()) {
+            PdfCopValidator validator = new PdfCopValidator(new ValidationProperties().setValidationEngine(engine));
+            byte[] bytes = content.getBytes(StandardCharsets.ISO_8859_1);
+
+            List<ContentStreamViolation> violations = validator.findViolations(bytes);
+
+            Assert.assertEquals(engine.name(), 3, violations.size());
+            Assert.assertEquals(violation(validator, content).getMessage(), violations.get(0).getMessage());
+            Assert.assertEquals(engine.name(), 36, violations.get(1).getOffset());
+            Assert.assertEquals(engine.name(), 49, violations.get(2).getOffset());
+            Assert.assertTrue(validator.findViolations(VALID.getBytes(StandardCharsets.ISO_8859_1)).isEmpty());
+        }
+    }
+
+    @Test
+    public void findViolationsStopsAtTheLimits() throws IOException {
+        String content = "5 ri 5 ri 5 ri";
+        ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfWriter(pdf))) {
+            pdfDocument.addNewPage().getFirstContentStream().setData(VALID.getBytes(StandardCharsets.ISO_8859_1));
+            for (int i = 0; i < 3; i++) {
+                pdfDocument.addNewPage().getFirstContentStream().setData(content.getBytes(StandardCharsets.ISO_8859_1));
+            }
+        }
+        ValidationProperties properties = new ValidationProperties().setMaxViolationsPerPage(2)
+                .setMaxViolationsPerDocument(5);
+        PdfCopValidator validator = new PdfCopValidator(properties);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        Assert.assertEquals(2, validator.findViolations(content.getBytes(StandardCharsets.ISO_8859_1)).size());
+        try {
+            for (PdfCop pdfCop : new PdfCop[] { new PdfCop(validator), new PdfCop(validator, executor, 2) }) {
+                PdfReader reader = new PdfReader(new ByteArrayInputStream(pdf.toByteArray()));
+                try (PdfDocument pdfDocument = new PdfDocument(reader)) {
+                    List<ContentStreamViolation> violations = pdfCop.findViolations(pdfDocument);
+
+                    Assert.assertEquals(5, violations.size());
+                    int[] pages = { 2, 2, 3, 3, 4 };
+                    for (int i = 0; i < pages.length; i++) {
+                        Assert.assertEquals(pages[i], violations.get(i).getPageNumber());
+                    }
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void violationTellsTheContentStreamObject() throws IOException {
+        ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfWriter(pdf))) {
+            PdfPage page = pdfDocument.addNewPage();
+            page.getFirstContentStream().setData(VALID.getBytes(StandardCharsets.ISO_8859_1));
+            page.newContentStreamAfter().setData("q Q\n BT ET ET".getBytes(StandardCharsets.ISO_8859_1));
+        }
+
+        for (ValidationEngine engine : ValidationEngine.values()) {
+            PdfCop pdfCop = new PdfCop(new PdfCopValidator(new ValidationProperties().setValidationEngine(engine)));
+            PdfReader reader = new PdfReader(new ByteArrayInputStream(pdf.toByteArray()));
+            try (PdfDocument pdfDocument = new PdfDocument(reader)) {
+                PdfIndirectReference stream = pdfDocument.getPage(1).getContentStream(1).getIndirectReference();
+
+                ContentStreamViolation violation = pdfCop.findViolations(pdfDocument).get(0);
+
+                Assert.assertEquals(1, violation.getPageNumber());
+                Assert.assertEquals(1, violation.getStreamIndex());
+                Assert.assertEquals(11, violation.getStreamOffset());
+                Assert.assertEquals(stream.getObjNumber(), violation.getObjectNumber());
+                Assert.assertEquals(stream.getGenNumber(), violation.getGenerationNumber());
+                Assert.assertTrue(violation.getMessage(), violation.getMessage().endsWith(
+                        " in object " + stream.getObjNumber() + " " + stream.getGenNumber() + " R on page 1"));
+            }
+        }
+    }
+
+    @Test
+    public void checkDocumentGivesTheVerdictOfEveryPage() throws IOException {
+        ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfWriter(pdf))) {
+            for (String content : new String[] { VALID, INVALID, VALID, INVALID, VALID }) {
+                pdfDocument.addNewPage().getFirstContentStream().setData(content.getBytes(StandardCharsets.ISO_8859_1));
+            }
+        }
+
+        try (PdfCop parallel = new PdfCop(2)) {
+            for (PdfCop pdfCop : new PdfCop[] { new PdfCop(), parallel }) {
+                PdfReader reader = new PdfReader(new ByteArrayInputStream(pdf.toByteArray()));
+                try (PdfDocument pdfDocument = new PdfDocument(reader)) {
+                    DocumentValidationResult result = pdfCop.checkDocument(pdfDocument);
+
+                    Assert.assertTrue(result.isComplete());
+                    Assert.assertFalse(result.isFollowingTheRules());
+                    Assert.assertEquals("{2, 4}", result.getFailingPages().toString());
+                    Assert.assertTrue(result.isPageFollowingTheRules(5));
+                    Assert.assertEquals(4, result.getViolations().get(1).getPageNumber());
+
+                    result = pdfCop.checkDocument(pdfDocument, 1);
+
+                    Assert.assertFalse(result.isComplete());
+                    Assert.assertEquals(2, result.getCheckedPageCount());
+                    Assert.assertEquals(1, result.getFailingPageCount());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void explainDocumentOnlyDiagnosesTheFailingPages() throws IOException {
+        ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfWriter(pdf))) {
+            for (String content : new String[] { VALID, "5 ri q Q 5 ri", VALID }) {
+                pdfDocument.addNewPage().getFirstContentStream().setData(content.getBytes(StandardCharsets.ISO_8859_1));
+            }
+        }
+        PdfCopValidator validator = new PdfCopValidator();
+
+        PdfReader reader = new PdfReader(new ByteArrayInputStream(pdf.toByteArray()));
+        try (PdfDocument pdfDocument = new PdfDocument(reader)) {
+            DocumentValidationResult result = new PdfCop(validator).explainDocument(pdfDocument);
+
+            Assert.assertEquals("{2}", result.getFailingPages().toString());
+            Assert.assertEquals(2, result.getViolations().size());
+            Assert.assertEquals(11, result.getViolations().get(1).getOffset());
+            Assert.assertEquals(3, validator.getStatistics().getSllParseCount());
+            Assert.assertEquals(1, validator.getStatistics().getLlFallbackCount());
+        }
+    }
+
+    @Test
+    public void explainCountsTheCompatibilitySectionsOfAFailingPageOnce() {
+        PdfCopValidator validator = new PdfCopValidator();
+
+        List<ContentStreamViolation> violations = validator.explain(Collections.singletonList(
+                "BX op EX 5 ri q Q 5 ri".getBytes(StandardCharsets.ISO_8859_1)), 10, null);
+
+        Assert.assertEquals(2, violations.size());
+        Assert.assertEquals(8, validator.getStatistics().getCompatibilitySectionByteCount());
+        Assert.assertEquals(1, validator.getStatistics().getLlFallbackCount());
+    }
+
+    @Test
+    public void validationLevelsStopAtTheirBoundary() {
+        for (ValidationEngine engine : ValidationEngine.values()) {
+            PdfCopValidator lexical = new PdfCopValidator(new ValidationProperties().setValidationEngine(engine)
+                    .setValidationLevel(ValidationLevel.LEXICAL).setMaxNestingDepth(2));
+            PdfCopValidator syntax = new PdfCopValidator(new ValidationProperties().setValidationEngine(engine)
+                    .setValidationLevel(ValidationLevel.SYNTAX));
+            PdfCopValidator semantic = new PdfCopValidator(new ValidationProperties().setValidationEngine(engine));
+
+            Assert.assertTrue(engine.name(), isValid(lexical, "BT ET ET"));
+            Assert.assertTrue(lexical.findViolations("BT ET ET".getBytes(StandardCharsets.ISO_8859_1)).isEmpty());
+            Assert.assertFalse(engine.name(), isValid(lexical, "(unterminated"));
+            Assert.assertFalse(engine.name(), isValid(lexical, "[[[1]]]"));
+            Assert.assertFalse(engine.name(), isValid(syntax, "BT ET ET"));
+            Assert.assertTrue(engine.name(), isValid(syntax, "-1 M"));
+            Assert.assertFalse(engine.name(), isValid(semantic, "-1 M"));
+        }
+    }
+
+    @Test
+    public void operandRangesAreChecked() {
+        for (ValidationEngine engine : ValidationEngine.values()) {
+            PdfCopValidator lexical = new PdfCopValidator(new ValidationProperties().setValidationEngine(engine)
+                    .setValidationLevel(ValidationLevel.LEXICAL));
+            PdfCopValidator syntax = new PdfCopValidator(new ValidationProperties().setValidationEngine(engine)
+                    .setValidationLevel(ValidationLevel.SYNTAX));
+            PdfCopValidator semantic = new PdfCopValidator(new ValidationProperties().setValidationEngine(engine));
+
+            for (String content : new String[] { "0 w 0.5 w", "0 J 2 J", "0 j 2 j", "0 Tr 7 Tr" }) {
+                Assert.assertTrue(engine.name() + " " + content, isValid(semantic, content));
+            }
+            for (String content : new String[] { "-0.5 w", "3 J", "-1 j", "1.5 J", "8 Tr" }) {
+                Assert.assertTrue(engine.name() + " " + content, isValid(lexical, content));
+                Assert.assertTrue(engine.name() + " " + content, isValid(syntax, content));
+                Assert.assertFalse(engine.name() + " " + content, isValid(semantic, content));
+            }
+        }
+    }
+
+    @Test
+    public void budgetsMakeTheCheckInconclusive() throws IOException {
+        StringBuilder longContent = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            longContent.append("q Q ");
+        }
+        ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfWriter(pdf))) {
+            pdfDocument.addNewPage().getFirstContentStream().setData(VALID.getBytes(StandardCharsets.ISO_8859_1));
+            for (int i = 0; i < 2; i++) {
+                pdfDocument.addNewPage().getFirstContentStream().setData(
+                        longContent.toString().getBytes(StandardCharsets.ISO_8859_1));
+            }
+        }
+
+        for (ValidationEngine engine : ValidationEngine.values()) {
+            PdfCopValidator tokens = new PdfCopValidator(new ValidationProperties().setValidationEngine(engine)
+                    .setPageBudget(new ValidationBudget().setMaxTokens(3000)));
+            PdfCopValidator bytes = new PdfCopValidator(new ValidationProperties().setValidationEngine(engine)
+                    .setDocumentBudget(new ValidationBudget().setMaxDecodedBytes(10000)));
+            PdfCopValidator time = new PdfCopValidator(new ValidationProperties().setValidationEngine(engine)
+                    .setPageBudget(new ValidationBudget().setMaxTime(1, TimeUnit.NANOSECONDS)));
+
+            try {
+                tokens.validate(longContent.toString());
+                Assert.fail("Expected the token budget to be exceeded");
+            } catch (ValidationInterruptedException e) {
+                Assert.assertEquals(InconclusiveReason.PAGE_TOKENS, e.getReason());
+            }
+            for (int parallelism = 1; parallelism <= 2; parallelism++) {
+                ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+                try {
+                    assertInconclusive(new PdfCop(tokens, executor, parallelism), pdf, null,
+                            InconclusiveReason.PAGE_TOKENS, 1);
+                    assertInconclusive(new PdfCop(bytes, executor, parallelism), pdf, null,
+                            InconclusiveReason.DOCUMENT_DECODED_BYTES, 2);
+                    assertInconclusive(new PdfCop(time, executor, parallelism), pdf, null,
+                            InconclusiveReason.PAGE_TIME, 1);
+                    CancellationToken cancellationToken = new CancellationToken();
+                    cancellationToken.cancel();
+                    assertInconclusive(new PdfCop(new PdfCopValidator(), executor, parallelism), pdf,
+                            cancellationToken, InconclusiveReason.CANCELLED, 0);
+                } finally {
+                    executor.shutdown();
+                }
+            }
+        }
+    }
+
+    @Test
+    public void contentStreamsAreDecodedWithinTheByteBudget() throws IOException {
+        byte[] spaces = new byte[8 << 20];
+        Arrays.fill(spaces, (byte) ' ');
+        ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfWriter(pdf))) {
+            pdfDocument.addNewPage().getFirstContentStream().setData(spaces);
+        }
+        // A few kilobytes inflating to megabytes
+        Assert.assertTrue(pdf.size() < 100_000);
+
+        PdfCopValidator page = new PdfCopValidator(new ValidationProperties()
+                .setPageBudget(new ValidationBudget().setMaxDecodedBytes(1 << 20)));
+        PdfCopValidator document = new PdfCopValidator(new ValidationProperties()
+                .setDocumentBudget(new ValidationBudget().setMaxDecodedBytes(1 << 20)));
+        assertInconclusive(new PdfCop(page), pdf, null, InconclusiveReason.PAGE_DECODED_BYTES, 0);
+        assertInconclusive(new PdfCop(document), pdf, null, InconclusiveReason.DOCUMENT_DECODED_BYTES, 0);
+    }
+
+    @Test
+    public void interruptedCheckIsInconclusive() throws IOException {
+        ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfWriter(pdf))) {
+            pdfDocument.addNewPage().getFirstContentStream().setData(VALID.getBytes(StandardCharsets.ISO_8859_1));
+        }
+
+        for (int parallelism = 1; parallelism <= 2; parallelism++) {
+            try (PdfCop pdfCop = new PdfCop(parallelism);
+                    PdfDocument pdfDocument = new PdfDocument(new PdfReader(
+                            new ByteArrayInputStream(pdf.toByteArray())))) {
+                DocumentValidationResult result;
+                Thread.currentThread().interrupt();
+                try {
+                    result = pdfCop.checkDocument(pdfDocument);
+                } finally {
+                    Assert.assertTrue(Thread.interrupted());
+                }
+
+                Assert.assertEquals(ValidationVerdict.INCONCLUSIVE, result.getVerdict());
+                Assert.assertEquals(InconclusiveReason.CANCELLED, result.getInconclusiveReason());
+            }
+        }
+    }
+
+    @Test
+    public void pdfCopUsesTheProvidedValidator() {
+        PdfCop pdfCop = new PdfCop(new PdfCopValidator());
+
+        Assert.assertTrue(pdfCop.doesSnippetFollowTheRules(VALID));
+    }
+
+    private static ContentStreamViolation violation(PdfCopValidator validator, String content) {
+        try {
+            validator.validate(content);
+        } catch (ContentStreamViolation e) {
+            return e;
+        }
+        throw new AssertionError("Expected a violation");
+    }
+
+    private static void assertNestedTooDeep(PdfCopValidator validator, String content) {
+        try {
+            validator.validate(content);
+            Assert.fail("Expected a nesting violation");
+        } catch (ParseCancellationException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("nesting deeper than"));
+        }
+    }
+
+    private static void assertInconclusive(PdfCop pdfCop, ByteArrayOutputStream pdf,
+            CancellationToken cancellationToken, InconclusiveReason reason, int checkedPageCount) throws IOException {
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf.toByteArray())))) {
+            DocumentValidationResult result = pdfCop.checkDocument(pdfDocument, Integer.MAX_VALUE, cancellationToken);
+
+            Assert.assertEquals(ValidationVerdict.INCONCLUSIVE, result.getVerdict());
+            Assert.assertEquals(reason, result.getInconclusiveReason());
+            Assert.assertEquals(checkedPageCount, result.getCheckedPageCount());
+            Assert.assertEquals(reason, pdfCop.explainDocument(pdfDocument, cancellationToken).getInconclusiveReason());
+            if (cancellationToken == null) {
+                try {
+                    pdfCop.isDocumentFollowingTheRules(pdfDocument);
+                    Assert.fail("Expected the check to be interrupted");
+                } catch (ValidationInterruptedException e) {
+                    Assert.assertEquals(reason, e.getReason());
+                }
+            }
+        }
+    }
+
+    private static boolean isValid(PdfCopValidator validator, String content) {
+        try {
+            return validator.validate(content);
+        } catch (ParseCancellationException e) {
+            return false;
+        }
+    }
+}
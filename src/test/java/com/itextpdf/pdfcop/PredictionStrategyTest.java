@@ -0,0 +1,90 @@
+/*
+    Copyright (c) 2023 iText Group NV
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+ */
+package com.itextpdf.pdfcop;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+@RunWith(Parameterized.class)
+public class PredictionStrategyTest {
+
+    @Parameterized.Parameters
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][] {
+                { "q BT /F1 12 Tf (Hello World) Tj ET Q", true },
+                { "/OC /Pr1 BDC BT (nested) Tj ET EMC", true },
+                { "/P <</MCID 12>> BDC q /Fm1 Do Q EMC", true },
+                { "0 1 0 RG BX anything EX /GS1 gs", true },
+                { "BT ET ET", false },
+                { "/OC /Pr1 BDC BT (nested) Tj ET", false },
+                { "BT (unbalanced Tj ET", false },
+                { "Tj", false }
+        });
+    }
+
+    private String syntaxToCheck;
+    private boolean pass;
+
+    public PredictionStrategyTest(String syntaxToCheck, boolean pass) {
+        this.syntaxToCheck = syntaxToCheck;
+        this.pass = pass;
+    }
+
+    @Test
+    public void sllThenLlGivesTheLlVerdict() {
+        PdfCopValidator ll = new PdfCopValidator();
+        PdfCopValidator sll = new PdfCopValidator(new ValidationProperties()
+                .setPredictionStrategy(PredictionStrategy.SLL_THEN_LL));
+
+        String expected = verdict(ll);
+        Assert.assertEquals(this.pass, "true".equals(expected));
+        Assert.assertEquals(expected, verdict(sll));
+
+        Assert.assertEquals(1, sll.getStatistics().getSllParseCount());
+        Assert.assertEquals(0, ll.getStatistics().getSllParseCount());
+        if (this.pass) {
+            Assert.assertEquals(0, sll.getStatistics().getLlFallbackCount());
+        }
+    }
+
+    private String verdict(PdfCopValidator validator) {
+        try {
+            return String.valueOf(validator.validate(this.syntaxToCheck));
+        } catch (ParseCancellationException e) {
+            return e.getMessage();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+    Copyright (c) 2023 iText Group NV
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+ */
+package com.itextpdf.pdfcop;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+@RunWith(Parameterized.class)
+public class ValidationEngineTest {
+
+    @Parameterized.Parameters
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][] {
+                { "", true },
+                { "q BT /F1 12 Tf (Hello World) Tj ET Q", true },
+                { "/OC /Pr1 BDC BT (nested) Tj ET EMC", true },
+                { "BT /OC /Pr1 BDC BT (nested) Tj ET EMC ET", true },
+                { "BT /OC /Pr1 BDC (not in a text object) Tj EMC ET", false },
+                { "/P <</MCID 12>> BDC q /Fm1 Do Q EMC", true },
+                { "/P <</MCID 12 /Alt (x) /A [1.5 /N <</K true>>]>> DP", true },
+                { "/P <</MCID>> DP", false },
+                { "0.5 1 0.2 RG BX anything EX /GS1 gs", true },
+                { "BT BX anything EX ET", true },
+                { "10 10 m BX EX", true },
+                { "10 10 m BX EX 20 20 l S", true },
+                { "10 10 m 20 20 l BX EX", false },
+                { "q BX BX /V (EX) op EX EX Q", true },
+                { "q BX BX op EX Q", false },
+                { "BX (EX EX", false },
+                { "10 10 20 20 re W n", true },
+                { "10 10 20 20 re W BX EX n", false },
+                { "W* f", true },
+                { "10 10 m q", false },
+                { "BT 10 10 m ET", false },
+                { "1 J 2 j", true },
+                { "3 Tr", true },
+                { "8 Tr", false },
+                { "BT 7 Tr ET", true },
+                { "1.0 w", true },
+                { "-1 i", false },
+                { "-1 M", false },
+                { "1.0 J", false },
+                { "[3.5 10] 6.5 d", true },
+                { "[3 5] 6.5 d", true },
+                { "[(a) 5] 6.5 d", false },
+                { "BT [(Hello) -120 (World)] TJ ET", true },
+                { "BT [/Name] TJ ET", false },
+                { "BT 12 14 (Hello) \" ET", true },
+                { "0.5 0.5 0.5 0.5 scn", true },
+                { "0.5 0.5 /P1 scn", true },
+                { "0.5 0.5 /P1 sc", false },
+                { "BI /W 12 /H 12 /BPC 8 /CS /G /F /AHx ID 0123456789AB EI", true },
+                { "BI ID abc EI", false },
+                { "q BI /W 4.0 /H 2.0 /BPC 8 /CS /G ID 12EI5678 EI Q", true },
+                { "q BI /F /DCT ID xEIx EI Q", true },
+                { "q BI /F /DCT ID xEIx Q", false },
+                { "BT BI /W 12 ID abc EI ET", false },
+                { "(unbalanced Tj", false },
+                { "BT (a (b) c) Tj (a \\( b) Tj ET", true },
+                { "BT (a) b) Tj ET", false },
+                { "BT [(a (b) c) -12 <0A1B>] TJ ET", true },
+                { "<0A1> Tj", false },
+                { "% comment\n q Q", true },
+                { "q % comment", false },
+                { "q Q Q", true },
+                { "Tj", false },
+                { "/Im1", false },
+                { "BT", false },
+                { "12 12 d0", false },
+                { "q \u0080 Q", false },
+                { "BT (\u00e9\u0080\u00ff) Tj ET /N\u007f\u00ff Do", true },
+                { "/Na#6De Do", true },
+                { "/Name{ Do", false }
+        });
+    }
+
+    private String syntaxToCheck;
+    private boolean pass;
+
+    public ValidationEngineTest(String syntaxToCheck, boolean pass) {
+        this.syntaxToCheck = syntaxToCheck;
+        this.pass = pass;
+    }
+
+    @Test
+    public void byteLevelEngineGivesTheAntlrVerdict() {
+        PdfCopValidator antlr = new PdfCopValidator();
+        PdfCopValidator byteLevel = new PdfCopValidator(new ValidationProperties()
+                .setValidationEngine(ValidationEngine.BYTE_LEVEL));
+
+        Assert.assertEquals(this.pass, passes(() -> antlr.validate(this.syntaxToCheck)));
+        Assert.assertEquals(this.pass, passes(() -> byteLevel.validate(this.syntaxToCheck)));
+        Assert.assertEquals(this.pass, passes(() -> byteLevel.validate(
+                this.syntaxToCheck.getBytes(StandardCharsets.ISO_8859_1))));
+    }
+
+    @Test
+    public void byteLevelEngineValidatesPagesAsAWhole() {
+        PdfCopValidator byteLevel = new PdfCopValidator(new ValidationProperties()
+                .setValidationEngine(ValidationEngine.BYTE_LEVEL));
+        List<byte[]> page = Arrays.asList("q Q".getBytes(StandardCharsets.ISO_8859_1),
+                this.syntaxToCheck.getBytes(StandardCharsets.ISO_8859_1));
+
+        Assert.assertEquals(this.pass, passes(() -> byteLevel.validate(page)));
+    }
+
+    @Test
+    public void violationsOfMultiStreamPagesNameTheStream() {
+        PdfCopValidator byteLevel = new PdfCopValidator(new ValidationProperties()
+                .setValidationEngine(ValidationEngine.BYTE_LEVEL));
+        try {
+            byteLevel.validate(Arrays.asList("q".getBytes(StandardCharsets.ISO_8859_1),
+                    "BT ET ET".getBytes(StandardCharsets.ISO_8859_1)));
+            Assert.fail();
+        } catch (ParseCancellationException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().endsWith("(content stream 1, offset 6)"));
+        }
+    }
+
+    private static boolean passes(Supplier<Boolean> validation) {
+        try {
+            return validation.get();
+        } catch (ParseCancellationException e) {
+            return false;
+        }
+    }
+}
@@ -57,9 +57,11 @@ public class DeviceRgbTest {
     @Parameterized.Parameters
     public static Collection<Object[]> data() {
         return Arrays.asList(new Object[][] {
-                { "0 1 0 RG", true, new float[] {0, 1, 0}, "0 1 0 RG" },
-                { "0 0 1 rg", true, new float[] {0, 0, 1}, "0 0 1 rg" },
-                { "0.62745 0.62745 0.62745 RG", true, new float[] {0.62745f, 0.62745f, 0.62745f}, "0.62745 0.62745 0.62745 RG" }
+                { "0 1 0 RG", true, new float[] {0, 1, 0}, "RG" },
+                { "0 0 1 rg", true, new float[] {0, 0, 1}, "rg" },
+                { "0.62745 0.62745 0.62745 RG", true, new float[] {0.62745f, 0.62745f, 0.62745f}, "RG" },
+                { "0.5 % red\n0.25\r\n0 rg", true, new float[] {0.5f, 0.25f, 0}, "rg" },
+                { "0.5 0.25 rg", false, new float[] {0.5f, 0.25f}, "rg" }
         });
     }
 
@@ -96,5 +98,8 @@ public class DeviceRgbTest {
         TerminalNode operator = (TerminalNode) context.getChild(childCount-1);
         String actualOperator = operator.getSymbol().getText();
         Assert.assertEquals(this.operator, actualOperator);
+        for (int i = 0; i < this.operand.length; i++) {
+            Assert.assertEquals(this.operand[i], Float.parseFloat(context.NUMBER(i).getText()), 0);
+        }
     }
 }
\ No newline at end of file
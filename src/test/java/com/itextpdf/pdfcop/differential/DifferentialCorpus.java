@@ -0,0 +1,303 @@
+/*
+    Copyright (c) 2023 iText Group NV
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+ */
+package com.itextpdf.pdfcop.differential;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.pdfcop.synthetic.SyntheticContentGenerator;
+import com.itextpdf.pdfcop.synthetic.SyntheticContentProperties;
+import com.itextpdf.pdfcop.synthetic.ViolationKind;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.runners.Parameterized;
+
+/**
+ * Content on which all the validation engines must agree, grouped by where it comes from: the snippets of every
+ * parameterized test, the pages of the test PDFs, the lines of good.txt and bad.txt and randomly generated streams.
+ */
+final class DifferentialCorpus {
+
+    static final String PDF_DIRECTORY = "src/test/resources/pdfs";
+    static final long GENERATED_SEED = 0x5eed;
+    static final int GENERATED_COUNT = 5000;
+    static final int SYNTHETIC_PAGES_PER_KIND = 20;
+
+    // Pieces of content streams the generated inputs are made of
+    private static final String[] OPERATIONS = {
+            "q", "Q", "BT", "ET", "EMC", "/P BMC", "/P <</MCID 12>> BDC", "/OC /Pr1 BDC", "/P MP",
+            "/P <</A [1.5 (x) /N true]>> DP", "10.5 20 m", "30 40.5 l", "1 2.5 3 4 re", "1.5 2 3 4 5 6 c",
+            "1.5 2 3 4 v", "1.5 2 3 4 y", "h", "S", "s", "f", "F", "f*", "B", "B*", "b", "b*", "n", "W", "W*",
+            "1 0 0 1 10.5 20 cm", "1 0 0 1 10.5 20 Tm", "10.5 20 Td", "10 -12 TD", "T*", "/F1 12 Tf", "(Hi) Tj",
+            "(a\\)b) '", "10 12 (c) \"", "[(A) -120 (B)] TJ", "[] TJ", "[3.5 10] 6.5 d", "1 J", "2 j", "5 Tr",
+            "12 Tc", "0.5 Tw", "14 TL", "-3 Ts", "0.5 g", "0.1 0.2 0.3 RG", "0.1 0.2 0.3 0.4 k", "0.5 0.5 /P1 scn",
+            "0.5 SC", "/DeviceRGB cs", "/Pattern CS", "/GS1 gs", "/Perceptual ri", "/Im1 Do", "/Sh1 sh",
+            "BI /W 12 /H 2 /F /AHx /D [1.5 0.5] ID 0a0b EI", "BX anything EX", "% comment\n", "<0A1B> Tj"
+    };
+    private static final String[] STRAY_TOKENS = {
+            "0", "3", "12", "-1.5", "/N", "(x)", "[", "]", "<<", ">>", "true", "null", "Tz", "w", "d0", "ID", "EI"
+    };
+
+    private DifferentialCorpus() {
+    }
+
+    static final class Input {
+
+        final String name;
+        final List<byte[]> contentStreams;
+
+        Input(final String name, final List<byte[]> contentStreams) {
+            this.name = name;
+            this.contentStreams = contentStreams;
+        }
+
+        Input(final String name, final String content) {
+            this(name, Collections.singletonList(content.getBytes(StandardCharsets.ISO_8859_1)));
+        }
+
+        long length() {
+            long length = 0;
+            for (byte[] contentStream : this.contentStreams) {
+                length += contentStream.length;
+            }
+            return length;
+        }
+    }
+
+    /**
+     * Returns the corpus as parameters of a {@link Parameterized} test: the name of a group and its inputs.
+     */
+    static Collection<Object[]> groups() throws IOException {
+        List<Object[]> groups = new ArrayList<>();
+        for (Class<?> testClass : parameterizedTestClasses()) {
+            List<Input> inputs = snippets(testClass);
+            if (! inputs.isEmpty()) {
+                groups.add(new Object[] { testClass.getSimpleName(), inputs });
+            }
+        }
+        try (Stream<Path> pdfs = Files.list(Paths.get(PDF_DIRECTORY))) {
+            for (Path pdf : pdfs.sorted().collect(Collectors.toList())) {
+                groups.add(new Object[] { pdf.getFileName().toString(), pages(pdf.toFile()) });
+            }
+        }
+        groups.add(new Object[] { "good.txt", lines("good.txt") });
+        groups.add(new Object[] { "bad.txt", lines("bad.txt") });
+        groups.add(new Object[] { "generated", generated(GENERATED_SEED, GENERATED_COUNT) });
+        groups.add(new Object[] { "synthetic", synthetic(GENERATED_SEED, SYNTHETIC_PAGES_PER_KIND) });
+        return groups;
+    }
+
+    static List<Input> all() throws IOException {
+        List<Input> inputs = new ArrayList<>();
+        for (Object[] group : groups()) {
+            @SuppressWarnings("unchecked")
+            List<Input> groupInputs = (List<Input>) group[1];
+            inputs.addAll(groupInputs);
+        }
+        return inputs;
+    }
+
+    // Every test class in com.itextpdf.pdfcop and below with a @Parameterized.Parameters method
+    private static List<Class<?>> parameterizedTestClasses() throws IOException {
+        Path root;
+        try {
+            root = Paths.get(DifferentialCorpus.class.getResource("/").toURI());
+        } catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
+
+        List<Class<?>> classes = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(root.resolve("com/itextpdf/pdfcop"))) {
+            for (Path file : files.sorted().collect(Collectors.toList())) {
+                String name = root.relativize(file).toString().replace(File.separatorChar, '.');
+                if (! name.endsWith(".class") || name.contains("$")
+                        || name.startsWith(DifferentialCorpus.class.getPackage().getName())) {
+                    continue;
+                }
+                try {
+                    Class<?> testClass = Class.forName(name.substring(0, name.length() - ".class".length()));
+                    if (parametersMethod(testClass) != null) {
+                        classes.add(testClass);
+                    }
+                } catch (ClassNotFoundException e) {
+                    throw new IOException(e);
+                }
+            }
+        }
+        return classes;
+    }
+
+    private static Method parametersMethod(final Class<?> testClass) {
+        for (Method method : testClass.getDeclaredMethods()) {
+            if (method.isAnnotationPresent(Parameterized.Parameters.class) && Modifier.isStatic(method.getModifiers())
+                    && method.getParameterCount() == 0) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    // The strings among the parameters of a test class, except paths of PDF files
+    private static List<Input> snippets(final Class<?> testClass) throws IOException {
+        Iterable<?> parameters;
+        try {
+            parameters = (Iterable<?>) parametersMethod(testClass).invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IOException(e);
+        }
+
+        List<Input> inputs = new ArrayList<>();
+        int index = 0;
+        for (Object parameter : parameters) {
+            Object[] arguments = parameter instanceof Object[] ? (Object[]) parameter : new Object[] { parameter };
+            for (Object argument : arguments) {
+                if (argument instanceof String && ! ((String) argument).endsWith(".pdf")) {
+                    inputs.add(new Input(testClass.getSimpleName() + "[" + index + "]", (String) argument));
+                }
+            }
+            index++;
+        }
+        return inputs;
+    }
+
+    private static List<Input> pages(final File pdf) throws IOException {
+        List<Input> inputs = new ArrayList<>();
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfReader(pdf))) {
+            for (int pageNumber = 1; pageNumber <= pdfDocument.getNumberOfPages(); pageNumber++) {
+                PdfPage page = pdfDocument.getPage(pageNumber);
+                List<byte[]> contentStreams = new ArrayList<>();
+                for (int streamIndex = 0; streamIndex < page.getContentStreamCount(); streamIndex++) {
+                    contentStreams.add(page.getContentStream(streamIndex).getBytes(true));
+                }
+                inputs.add(new Input(pdf.getName() + " page " + pageNumber, contentStreams));
+            }
+        }
+        return inputs;
+    }
+
+    // Lines are printf formats, as fed to antlr4-parse by linux-antrl4-test.sh
+    private static List<Input> lines(final String fileName) throws IOException {
+        List<Input> inputs = new ArrayList<>();
+        List<String> lines = Files.readAllLines(Paths.get(fileName), StandardCharsets.ISO_8859_1);
+        for (int i = 0; i < lines.size(); i++) {
+            inputs.add(new Input(fileName + " line " + (i + 1), unescape(lines.get(i))));
+        }
+        return inputs;
+    }
+
+    static String unescape(final String format) {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        for (int i = 0; i < format.length(); i++) {
+            char c = format.charAt(i);
+            if (c == '%' && i + 1 < format.length() && format.charAt(i + 1) == '%') {
+                content.write('%');
+                i++;
+            } else if (c == '\\' && i + 1 < format.length()) {
+                char escaped = format.charAt(++i);
+                switch (escaped) {
+                    case 'n': content.write('\n'); break;
+                    case 'r': content.write('\r'); break;
+                    case 't': content.write('\t'); break;
+                    case 'f': content.write('\f'); break;
+                    case 'b': content.write('\b'); break;
+                    case '0': case '1': case '2': case '3': case '4': case '5': case '6': case '7': {
+                        int value = 0;
+                        int end = Math.min(i + 3, format.length());
+                        while (i < end && format.charAt(i) >= '0' && format.charAt(i) <= '7') {
+                            value = value * 8 + format.charAt(i++) - '0';
+                        }
+                        i--;
+                        content.write(value);
+                        break;
+                    }
+                    default:
+                        content.write(escaped);
+                }
+            } else {
+                content.write(c);
+            }
+        }
+        return new String(content.toByteArray(), StandardCharsets.ISO_8859_1);
+    }
+
+    static List<Input> generated(final long seed, final int count) {
+        Random random = new Random(seed);
+        List<Input> inputs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            StringBuilder content = new StringBuilder();
+            int fragments = random.nextInt(24);
+            for (int fragment = 0; fragment < fragments; fragment++) {
+                content.append(random.nextInt(8) == 0 ? STRAY_TOKENS[random.nextInt(STRAY_TOKENS.length)]
+                        : OPERATIONS[random.nextInt(OPERATIONS.length)]);
+                content.append(random.nextInt(10) == 0 ? "\n" : " ");
+            }
+            inputs.add(new Input("generated[" + i + "]", content.toString()));
+        }
+        return inputs;
+    }
+
+    // Valid pages and pages with each kind of violation, of various nesting depths and split into content streams
+    static List<Input> synthetic(final long seed, final int pagesPerKind) {
+        List<ViolationKind> violations = new ArrayList<>();
+        violations.add(null);
+        Collections.addAll(violations, ViolationKind.values());
+
+        List<Input> inputs = new ArrayList<>();
+        for (ViolationKind violation : violations) {
+            SyntheticContentGenerator generator = new SyntheticContentGenerator(new SyntheticContentProperties()
+                    .setSeed(seed)
+                    .setPageSize(8 * 1024)
+                    .setMaxNestingDepth(6)
+                    .setContentStreamsPerPage(2)
+                    .setViolation(violation));
+            for (int i = 0; i < pagesPerKind; i++) {
+                inputs.add(new Input("synthetic " + violation + "[" + i + "]", generator.nextPage()));
+            }
+        }
+        return inputs;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+    Copyright (c) 2023 iText Group NV
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+ */
+package com.itextpdf.pdfcop.differential;
+
+import com.itextpdf.pdfcop.PdfCopValidator;
+import com.itextpdf.pdfcop.PredictionStrategy;
+import com.itextpdf.pdfcop.ValidationEngine;
+import com.itextpdf.pdfcop.ValidationLevel;
+import com.itextpdf.pdfcop.ValidationProperties;
+
+import java.util.List;
+
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+
+/**
+ * The ways content can be validated, each at any {@link ValidationLevel}. {@link #ANTLR_LL} is the reference the
+ * others are compared with.
+ */
+enum DifferentialEngine {
+
+    ANTLR_LL(ValidationEngine.ANTLR, PredictionStrategy.LL, true),
+    ANTLR_SLL_THEN_LL(ValidationEngine.ANTLR, PredictionStrategy.SLL_THEN_LL, true),
+    BYTE_LEVEL(ValidationEngine.BYTE_LEVEL, PredictionStrategy.LL, false);
+
+    static final String PASS = "pass";
+
+    private final ValidationEngine validationEngine;
+    private final PredictionStrategy predictionStrategy;
+    // Whether violations are reported at the same line and column as by the reference or only the verdict is the same
+    final boolean sameLocations;
+
+    DifferentialEngine(final ValidationEngine validationEngine, final PredictionStrategy predictionStrategy,
+            final boolean sameLocations) {
+        this.validationEngine = validationEngine;
+        this.predictionStrategy = predictionStrategy;
+        this.sameLocations = sameLocations;
+    }
+
+    PdfCopValidator newValidator(final ValidationLevel validationLevel) {
+        return new PdfCopValidator(new ValidationProperties()
+                .setValidationEngine(this.validationEngine)
+                .setPredictionStrategy(this.predictionStrategy)
+                .setValidationLevel(validationLevel));
+    }
+
+    /**
+     * Returns the "line L:C" prefix of a violation reported by the ANTLR engine.
+     */
+    static String location(final String verdict) {
+        int end = verdict.indexOf(' ', "line ".length());
+        return end < 0 ? verdict : verdict.substring(0, end);
+    }
+
+    /**
+     * Returns {@link #PASS} or the message of the violation.
+     */
+    static String verdict(final PdfCopValidator validator, final List<byte[]> contentStreams) {
+        try {
+            validator.validate(contentStreams);
+            return PASS;
+        } catch (ParseCancellationException e) {
+            return e.getMessage();
+        }
+    }
+}
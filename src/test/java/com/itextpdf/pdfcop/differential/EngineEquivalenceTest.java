@@ -0,0 +1,102 @@
+/*
+    Copyright (c) 2023 iText Group NV
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+ */
+package com.itextpdf.pdfcop.differential;
+
+import com.itextpdf.pdfcop.PdfCopValidator;
+import com.itextpdf.pdfcop.ValidationLevel;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+@RunWith(Parameterized.class)
+public class EngineEquivalenceTest {
+
+    // Mismatches listed in a failure message
+    private static final int MAX_REPORTED = 20;
+
+    // Every group of the corpus at every level, the checks of a level mustn't fire at the levels below
+    @Parameterized.Parameters(name = "{0} {2}")
+    public static Collection<Object[]> data() throws IOException {
+        List<Object[]> data = new ArrayList<>();
+        for (Object[] group : DifferentialCorpus.groups()) {
+            for (ValidationLevel validationLevel : ValidationLevel.values()) {
+                data.add(new Object[] { group[0], group[1], validationLevel });
+            }
+        }
+        return data;
+    }
+
+    private String group;
+    private List<DifferentialCorpus.Input> inputs;
+    private ValidationLevel validationLevel;
+
+    public EngineEquivalenceTest(String group, List<DifferentialCorpus.Input> inputs,
+            ValidationLevel validationLevel) {
+        this.group = group;
+        this.inputs = inputs;
+        this.validationLevel = validationLevel;
+    }
+
+    @Test
+    public void allEnginesGiveTheReferenceVerdict() {
+        Map<DifferentialEngine, PdfCopValidator> validators = new EnumMap<>(DifferentialEngine.class);
+        for (DifferentialEngine engine : DifferentialEngine.values()) {
+            validators.put(engine, engine.newValidator(this.validationLevel));
+        }
+
+        StringBuilder mismatches = new StringBuilder();
+        int mismatchCount = 0;
+        for (DifferentialCorpus.Input input : this.inputs) {
+            String expected = DifferentialEngine.verdict(validators.get(DifferentialEngine.ANTLR_LL),
+                    input.contentStreams);
+            for (DifferentialEngine engine : DifferentialEngine.values()) {
+                String actual = DifferentialEngine.verdict(validators.get(engine), input.contentStreams);
+                boolean same = DifferentialEngine.PASS.equals(expected) == DifferentialEngine.PASS.equals(actual)
+                        && (! engine.sameLocations || DifferentialEngine.location(expected)
+                                .equals(DifferentialEngine.location(actual)));
+                if (! same && mismatchCount++ < MAX_REPORTED) {
+                    mismatches.append('\n').append(input.name).append(' ').append(engine)
+                            .append(": expected <").append(expected).append("> but was <").append(actual).append('>');
+                }
+            }
+        }
+
+        Assert.assertEquals(this.group + " at " + this.validationLevel + " has " + mismatchCount + " mismatches" + mismatches, 0, mismatchCount);
+    }
+}
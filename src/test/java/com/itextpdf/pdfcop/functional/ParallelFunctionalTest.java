@@ -0,0 +1,125 @@
+/*
+    Copyright (c) 2023 iText Group NV
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+ */
+package com.itextpdf.pdfcop.functional;
+
+import com.itextpdf.pdfcop.PdfCop;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+@RunWith(Parameterized.class)
+public class ParallelFunctionalTest {
+    @Parameterized.Parameters
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][] {
+                { "src/test/resources/pdfs/input.pdf" },
+                { "src/test/resources/pdfs/outlook.pdf" },
+                { "src/test/resources/pdfs/flowcad.pdf" },
+                { "src/test/resources/pdfs/opensource.pdf" },
+                { "src/test/resources/pdfs/spunbysorcery.pdf" },
+                { "src/test/resources/pdfs/inlineimage.pdf" },
+                { "src/test/resources/pdfs/cmp_fieldsJustificationTest02.pdf" }
+        });
+    }
+
+    private String inputPdf;
+
+    public ParallelFunctionalTest(String inputPdf) {
+        this.inputPdf = inputPdf;
+    }
+
+    @Test
+    public void ownThreadsGiveSequentialVerdict() throws IOException {
+        try (PdfCop pdfCop = new PdfCop(4)) {
+            Assert.assertEquals(verdict(new PdfCop()), verdict(pdfCop));
+        }
+    }
+
+    @Test
+    public void ownThreadsAreKeptFromOneDocumentToTheNext() throws IOException {
+        Set<Thread> before = pageValidatorThreads();
+        Set<Thread> workers = new HashSet<>();
+        try (PdfCop pdfCop = new PdfCop(2)) {
+            for (int i = 0; i < 3; i++) {
+                verdict(pdfCop);
+                workers.addAll(pageValidatorThreads());
+            }
+        }
+        workers.removeAll(before);
+
+        Assert.assertTrue(workers.toString(), workers.size() <= 2);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void closedPdfCopHasNoThreads() throws IOException {
+        PdfCop pdfCop = new PdfCop(2);
+        pdfCop.close();
+
+        pdfCop.isDocumentFollowingTheRules(this.inputPdf);
+    }
+
+    @Test
+    public void sharedExecutorGivesSequentialVerdict() throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Assert.assertEquals(verdict(new PdfCop()), verdict(new PdfCop(executor, 3)));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static Set<Thread> pageValidatorThreads() {
+        Set<Thread> threads = new HashSet<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if ("pdfcop-page-validator".equals(thread.getName())) {
+                threads.add(thread);
+            }
+        }
+        return threads;
+    }
+
+    private String verdict(PdfCop pdfCop) throws IOException {
+        try {
+            return String.valueOf(pdfCop.isDocumentFollowingTheRules(this.inputPdf));
+        } catch (RuntimeException e) {
+            return e.getClass().getName() + ": " + e.getMessage();
+        }
+    }
+}
@@ -59,7 +59,7 @@ public class LineCapTest {
                 { "0 J", true, 0, "J" },
                 { "1 J", true, 1, "J" },
                 { "2 J", true, 2, "J" },
-                { "3 J", true, 3, "J" },
+                { "3 J", false, 3, "J" },
                 { "A J", false, -1, "J" },
                 { "J", false, -1, "J" }
         });
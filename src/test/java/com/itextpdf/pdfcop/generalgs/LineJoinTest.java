@@ -59,7 +59,7 @@ public class LineJoinTest {
                 { "0 j", true, 0, "j" },
                 { "1 j", true, 1, "j" },
                 { "2 j", true, 2, "j" },
-                { "3 j", true, 3, "j" },
+                { "3 j", false, 3, "j" },
                 { "A j", false, -1, "j" },
                 { "j", false, -1, "j" }
         });
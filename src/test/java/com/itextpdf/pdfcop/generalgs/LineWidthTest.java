@@ -58,7 +58,7 @@ public class LineWidthTest {
         return Arrays.asList(new Object[][] {
                 { "0 w", true, "0", "w" },
                 { "2 w", true, "2", "w" },
-                { "-2 w", true, "-2", "w" },
+                { "-2 w", false, "-2", "w" },
                 { "0.1 w", true, "0.1", "w" },
                 { ".01 w", true, ".01", "w" },
                 { "1 w", true, "1", "w" }
@@ -73,7 +73,12 @@ public class InlineImageTest {
                         "\u0016\u0017\u0018\u0019\u001A%&'()*456789:CDEFGHIJSTUVWXYZcdefghijstuvwxyzƒ„…†‡ˆ‰Š’“”•–—˜™š¢£¤¥¦§¨©ª²³´µ¶·¸¹ºÂÃÄÅÆÇÈÉÊÒÓÔÕÖ×ØÙÚáâãäåæçèéêñòóôõö÷øùúÿÄ \u001F\u0001 \u0003\u0001\u0001\u0001\u0001\u0001\u0001\u0001\u0001\u0001      \u0001\u0002\u0003\u0004\u0005\u0006\u0007\b\t\n" +
                         "\u000BÿÄ µ\u0011 \u0002\u0001\u0002\u0004\u0004\u0003\u0004\u0007\u0005\u0004\u0004 \u0001\u0002w \u0001\u0002\u0003\u0011\u0004\u0005!1\u0006\u0012AQ\u0007aq\u0013\"2\u0081\b\u0014B‘¡±Á\t#3Rð\u0015brÑ\n" +
                         "\u0016$4á%ñ\u0017\u0018\u0019\u001A&'()*56789:CDEFGHIJSTUVWXYZcdefghijstuvwxyz‚ƒ„…†‡ˆ‰Š’“”•–—˜™š¢£¤¥¦§¨©ª²³´µ¶·¸¹ºÂÃÄÅÆÇÈÉÊÒÓÔÕÖ×ØÙÚâãäåæçèéêòóôõö÷øùúÿÚ \f\u0003\u0001 \u0002\u0011\u0003\u0011 ? þ\u007Fè¢Š ÿÙ\n" +
-                        "EI", true, 12 }
+                        "EI", true, 12 },
+                // The data of unfiltered images and images with a length is skipped, whatever it holds
+                { "BI /W 4.0 /H 2.0 /BPC 8 /CS /G ID 12EI5678 EI", true, 10 },
+                { "BI /F /AHx /L 6.0 ID EI EI EI", true, 6 },
+                { "BI /F /DCT ID xEIx EI", true, 4 },
+                { "BI /F /DCT ID xEIx", false, 0 }
 
         });
     }
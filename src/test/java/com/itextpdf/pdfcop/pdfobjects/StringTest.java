@@ -60,7 +60,16 @@ public class StringTest {
                 { "(Hello World)", true, "(Hello World)" },
                 { "<AABB001122>", true, "<AABB001122>" },
                 { "(Hello World", false, "(Hello World)" },
-                { "<ABC>", true, "<ABC>" }
+                { "<ABC>", true, "<ABC>" },
+                { "(Hello (nested (World)))", true, "(Hello (nested (World)))" },
+                { "(Hello \\) World)", true, "(Hello \\) World)" },
+                { "(Hello \\\\) World)", true, "(Hello \\\\)" },
+                { "(Hello (World)", false, "(Hello (World)" },
+                { "(\\(Hello World)", true, "(\\(Hello World)" },
+                { "<AB CD>", true, "<AB CD>" },
+                { "<\nAB\r\n C\tD >", true, "<\nAB\r\n C\tD >" },
+                { "< >", true, "< >" },
+                { "<AB CG>", false, "<AB CG>" }
         });
     }
 
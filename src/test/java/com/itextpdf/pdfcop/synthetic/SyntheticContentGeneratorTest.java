@@ -0,0 +1,145 @@
+/*
+    Copyright (c) 2023 iText Group NV
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+ */
+package com.itextpdf.pdfcop.synthetic;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.pdfcop.PdfCop;
+import com.itextpdf.pdfcop.PdfCopValidator;
+import com.itextpdf.pdfcop.ValidationEngine;
+import com.itextpdf.pdfcop.ValidationProperties;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+@RunWith(Parameterized.class)
+public class SyntheticContentGeneratorTest {
+
+    private static final int SEEDS = 20;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][] {
+                { null },
+                { ViolationKind.WRONG_OPERANDS },
+                { ViolationKind.UNKNOWN_OPERATOR },
+                { ViolationKind.MISPLACED_OPERATOR },
+                { ViolationKind.UNTERMINATED_STRING },
+                { ViolationKind.DANGLING_OPERANDS }
+        });
+    }
+
+    private ViolationKind violation;
+
+    public SyntheticContentGeneratorTest(ViolationKind violation) {
+        this.violation = violation;
+    }
+
+    @Test
+    public void bothEnginesGiveTheIntendedVerdict() {
+        PdfCopValidator antlr = new PdfCopValidator();
+        PdfCopValidator byteLevel = new PdfCopValidator(new ValidationProperties()
+                .setValidationEngine(ValidationEngine.BYTE_LEVEL));
+
+        for (int seed = 0; seed < SEEDS; seed++) {
+            SyntheticContentGenerator generator = new SyntheticContentGenerator(properties(seed)
+                    .setMaxNestingDepth(seed % 6)
+                    .setContentStreamsPerPage(1 + seed % 3));
+            List<byte[]> page = generator.nextPage();
+
+            Assert.assertEquals("seed " + seed, this.violation == null, passes(antlr, page));
+            Assert.assertEquals("seed " + seed, this.violation == null, passes(byteLevel, page));
+        }
+    }
+
+    @Test
+    public void sameSeedGivesSameContent() {
+        byte[] content = new SyntheticContentGenerator(properties(42)).nextContentStream();
+
+        Assert.assertArrayEquals(content, new SyntheticContentGenerator(properties(42)).nextContentStream());
+        Assert.assertFalse(Arrays.equals(content, new SyntheticContentGenerator(properties(43)).nextContentStream()));
+    }
+
+    @Test
+    public void pagesAreSplitIntoContentStreams() {
+        SyntheticContentGenerator generator = new SyntheticContentGenerator(properties(7)
+                .setPageSize(8 * 1024)
+                .setContentStreamsPerPage(3));
+
+        Assert.assertEquals(3, generator.nextPage().size());
+    }
+
+    @Test
+    public void wrappedIntoPdf() throws IOException {
+        ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+        new SyntheticContentGenerator(properties(11)
+                .setPageCount(3)
+                .setContentStreamsPerPage(2))
+                .writePdf(pdf);
+
+        try (PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf.toByteArray())))) {
+            Assert.assertEquals(3, pdfDocument.getNumberOfPages());
+            Assert.assertEquals(2, pdfDocument.getPage(1).getContentStreamCount());
+        }
+
+        boolean followsTheRules;
+        try {
+            followsTheRules = new PdfCop().isDocumentFollowingTheRules(new ByteArrayInputStream(pdf.toByteArray()));
+        } catch (ParseCancellationException e) {
+            followsTheRules = false;
+        }
+        Assert.assertEquals(this.violation == null, followsTheRules);
+    }
+
+    private SyntheticContentProperties properties(final long seed) {
+        return new SyntheticContentProperties()
+                .setSeed(seed)
+                .setPageSize(4 * 1024)
+                .setViolation(this.violation);
+    }
+
+    private static boolean passes(PdfCopValidator validator, List<byte[]> page) {
+        try {
+            return validator.validate(page);
+        } catch (ParseCancellationException e) {
+            return false;
+        }
+    }
+}